@@ -1,5 +1,6 @@
 package com.v2r.v2rbackend.config;
 
+import com.v2r.v2rbackend.entity.Money;
 import com.v2r.v2rbackend.entity.Order;
 import com.v2r.v2rbackend.entity.OrderDetail;
 import com.v2r.v2rbackend.entity.Role;
@@ -9,12 +10,16 @@ import com.v2r.v2rbackend.repository.OrderRepository;
 import com.v2r.v2rbackend.repository.RoleRepository;
 import com.v2r.v2rbackend.repository.SubscriptionRepository;
 import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.service.OrderTotalsService;
+import com.v2r.v2rbackend.service.RevenueRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -37,6 +42,12 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private OrderTotalsService orderTotalsService;
+
     @Override
     public void run(String... args) {
         seedRoles();
@@ -151,7 +162,7 @@ public class DataSeeder implements CommandLineRunner {
                 .noneMatch(s -> "Basic".equalsIgnoreCase(s.getName()))) {
             Subscription basic = new Subscription();
             basic.setName("Basic");
-            basic.setPrice("190000");
+            basic.setPrice(Money.of(190000));
             basic.setNumberOfModel(10);
             basic.setStatus(true);
             subscriptionRepository.save(basic);
@@ -165,7 +176,7 @@ public class DataSeeder implements CommandLineRunner {
                 .noneMatch(s -> "Pro".equalsIgnoreCase(s.getName()))) {
             Subscription pro = new Subscription();
             pro.setName("Pro");
-            pro.setPrice("499000");
+            pro.setPrice(Money.of(499000));
             pro.setNumberOfModel(30);
             pro.setStatus(true);
             subscriptionRepository.save(pro);
@@ -179,7 +190,7 @@ public class DataSeeder implements CommandLineRunner {
                 .noneMatch(s -> "Enterprise".equalsIgnoreCase(s.getName()))) {
             Subscription enterprise = new Subscription();
             enterprise.setName("Enterprise");
-            enterprise.setPrice("4999000");
+            enterprise.setPrice(Money.of(4999000));
             enterprise.setNumberOfModel(-1); // Unlimited
             enterprise.setStatus(true);
             subscriptionRepository.save(enterprise);
@@ -280,32 +291,34 @@ public class DataSeeder implements CommandLineRunner {
 
         // Order data from the image
         Object[][] orderData = {
-            {"12:01:28 20-11-2025", "FT25324055245745", "phillipvothien306@gmail.com", 2, 499000.0},
-            {"11:59:41 20-11-2025", "FT25324453487440", "nhungthyse184902@fpt.edu.vn", 2, 499000.0},
-            {"22:36:17 17-11-2025", "FT25322313880389", "notnagisapham1103@gmail.com", 2, 499000.0},
-            {"22:34:52 17-11-2025", "FT25322346000561", "datkhoi224@gmail.com", 2, 499000.0},
-            {"20:04:25 17-11-2025", "FT25321240939704", "quannmse182197@fpt.edu.vn", 1, 199000.0},
-            {"20:02:20 17-11-2025", "FT25321888795387", "huyhnse182014@fpt.edu.vn", 1, 199000.0},
-            {"11:15:37 16-11-2025", "FT25321554489213", "hatanphong8@gmail.com", 1, 199000.0},
-            {"11:14:57 16-11-2025", "FT25321431914306", "Ckhoa269@gmail.com", 1, 199000.0},
-            {"11:13:21 16-11-2025", "FT25321282060392", "huynhthuchadoan99@gmail.com", 2, 499000.0},
-            {"11:12:19 16-11-2025", "FT25321094300301", "anhtuanphanminh206@gmail.com", 1, 199000.0},
-            {"12:31:25 15-11-2025", "FT25319703413381", "anhlam2103@gmail.com", 2, 499000.0},
-            {"12:29:50 15-11-2025", "FT25319404639403", "nguyenthithuydung.nbk@gmail.com", 2, 499000.0},
-            {"11:51:37 15-11-2025", "FT25319269019284", "nguyentriminhgc@gmail.com", 1, 199000.0},
-            {"11:50:24 15-11-2025", "FT25319232725701", "ledinhduy09042005@gmail.com", 1, 199000.0},
-            {"11:43:53 15-11-2025", "FT25319992002114", "huynhgiahuydao1717@gmail.com", 1, 199000.0},
-            {"11:16:33 15-11-2025", "FT25319247201007", "greeenma052@gmail.com", 1, 199000.0},
-            {"10:17:28 15-11-2025", "FT25319037239910", "dangminhtuanan9999@gmail.com", 1, 199000.0},
-            {"20:30:42 14-11-2025", "FT25318009643290", "thinhkg644@gmail.com", 2, 499000.0},
-            {"20:29:12 14-11-2025", "FT25318000471046", "vuquangphihoang124@gmail.com", 2, 499000.0},
-            {"16:38:35 14-11-2025", "FT25318831156970", "nghi050609@gmail.com", 1, 199000.0},
-            {"16:36:13 14-11-2025", "FT25318023961115", "tranphuongnamrg2004@gmail.com", 1, 199000.0},
-            {"16:26:41 14-11-2025", "FT25318035728653", "giahienpk123@gmail.com", 2, 499000.0}
+            {"12:01:28 20-11-2025", "FT25324055245745", "phillipvothien306@gmail.com", 2, 499000L},
+            {"11:59:41 20-11-2025", "FT25324453487440", "nhungthyse184902@fpt.edu.vn", 2, 499000L},
+            {"22:36:17 17-11-2025", "FT25322313880389", "notnagisapham1103@gmail.com", 2, 499000L},
+            {"22:34:52 17-11-2025", "FT25322346000561", "datkhoi224@gmail.com", 2, 499000L},
+            {"20:04:25 17-11-2025", "FT25321240939704", "quannmse182197@fpt.edu.vn", 1, 199000L},
+            {"20:02:20 17-11-2025", "FT25321888795387", "huyhnse182014@fpt.edu.vn", 1, 199000L},
+            {"11:15:37 16-11-2025", "FT25321554489213", "hatanphong8@gmail.com", 1, 199000L},
+            {"11:14:57 16-11-2025", "FT25321431914306", "Ckhoa269@gmail.com", 1, 199000L},
+            {"11:13:21 16-11-2025", "FT25321282060392", "huynhthuchadoan99@gmail.com", 2, 499000L},
+            {"11:12:19 16-11-2025", "FT25321094300301", "anhtuanphanminh206@gmail.com", 1, 199000L},
+            {"12:31:25 15-11-2025", "FT25319703413381", "anhlam2103@gmail.com", 2, 499000L},
+            {"12:29:50 15-11-2025", "FT25319404639403", "nguyenthithuydung.nbk@gmail.com", 2, 499000L},
+            {"11:51:37 15-11-2025", "FT25319269019284", "nguyentriminhgc@gmail.com", 1, 199000L},
+            {"11:50:24 15-11-2025", "FT25319232725701", "ledinhduy09042005@gmail.com", 1, 199000L},
+            {"11:43:53 15-11-2025", "FT25319992002114", "huynhgiahuydao1717@gmail.com", 1, 199000L},
+            {"11:16:33 15-11-2025", "FT25319247201007", "greeenma052@gmail.com", 1, 199000L},
+            {"10:17:28 15-11-2025", "FT25319037239910", "dangminhtuanan9999@gmail.com", 1, 199000L},
+            {"20:30:42 14-11-2025", "FT25318009643290", "thinhkg644@gmail.com", 2, 499000L},
+            {"20:29:12 14-11-2025", "FT25318000471046", "vuquangphihoang124@gmail.com", 2, 499000L},
+            {"16:38:35 14-11-2025", "FT25318831156970", "nghi050609@gmail.com", 1, 199000L},
+            {"16:36:13 14-11-2025", "FT25318023961115", "tranphuongnamrg2004@gmail.com", 1, 199000L},
+            {"16:26:41 14-11-2025", "FT25318035728653", "giahienpk123@gmail.com", 2, 499000L}
         };
 
         int createdCount = 0;
         int skippedCount = 0;
+        LocalDate firstDay = null;
+        LocalDate lastDay = null;
 
         for (Object[] data : orderData) {
             try {
@@ -313,11 +326,10 @@ public class DataSeeder implements CommandLineRunner {
                 String checkCode = (String) data[1];
                 String email = (String) data[2];
                 int subscriptionId = (int) data[3];
-                double totalPrice = (double) data[4];
+                Money totalPrice = Money.of((long) data[4]);
 
                 // Check if order with this check code already exists
-                if (orderRepository.findAll().stream()
-                        .anyMatch(o -> checkCode.equals(o.getCheckCode()))) {
+                if (orderRepository.existsByCheckCode(checkCode)) {
                     skippedCount++;
                     continue;
                 }
@@ -364,6 +376,9 @@ public class DataSeeder implements CommandLineRunner {
                 // Save order (cascade will save order details)
                 orderRepository.save(order);
                 createdCount++;
+                LocalDate day = orderDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+                firstDay = firstDay == null || day.isBefore(firstDay) ? day : firstDay;
+                lastDay = lastDay == null || day.isAfter(lastDay) ? day : lastDay;
                 System.out.println("   ✅ Created order: " + checkCode + " for " + email);
 
             } catch (Exception e) {
@@ -377,5 +392,26 @@ public class DataSeeder implements CommandLineRunner {
         System.out.println("   ⚠️ Skipped: " + skippedCount + " orders");
         System.out.println("   📧 Total: " + orderData.length + " orders");
         System.out.println("✅ Orders seeding completed!\n");
+
+        if (createdCount > 0) {
+            rebuildOrderAggregates(firstDay, lastDay);
+        }
+    }
+
+    // Seed orders are saved directly, so bring revenue_rollup and order_status_totals up to date
+    // for them the same way the rebuild endpoints do.
+    private void rebuildOrderAggregates(LocalDate firstDay, LocalDate lastDay) {
+        try {
+            revenueRollupService.rebuild(firstDay, lastDay);
+        } catch (Exception e) {
+            System.out.println("   ❌ Error rebuilding revenue rollup: " + e.getMessage());
+        }
+        try {
+            orderTotalsService.rebuild();
+        } catch (IllegalStateException e) {
+            // Totals are disabled and read from orders directly
+        } catch (Exception e) {
+            System.out.println("   ❌ Error rebuilding order status totals: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.v2r.v2rbackend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which database the application is connected to, for the hand-written SQL that differs between
+ * SQL Server (production) and the portable forms used elsewhere (H2 in tests). Read from the JDBC
+ * metadata on first use and cached.
+ */
+@Component
+public class DatabaseDialect {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile String productName;
+
+    public boolean isSqlServer() {
+        return productName().contains("sql server");
+    }
+
+    public boolean isH2() {
+        return productName().contains("h2");
+    }
+
+    // Lower-cased JDBC database product name
+    public String productName() {
+        String name = productName;
+        if (name == null) {
+            name = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase());
+            productName = name;
+        }
+        return name;
+    }
+}
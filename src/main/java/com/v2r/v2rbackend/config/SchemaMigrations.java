@@ -0,0 +1,219 @@
+package com.v2r.v2rbackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema changes that ddl-auto=update cannot make on an existing database (column type changes,
+ * data backfills, dropping columns, filtered indexes). Runs before DataSeeder; every step checks
+ * the current schema first, so it is a no-op on restarts.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SchemaMigrations implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    // Money columns that used to be mapped as double (float(53)) and are BIGINT whole VND now
+    private static final String[][] MONEY_COLUMNS = {
+            {"orders", "total_price"},
+            {"order_details", "price_per_unit"},
+            {"order_details", "total_price"},
+            {"payment", "amount"},
+            {"order_status_totals", "total_price"},
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+    @Override
+    public void run(String... args) {
+        migrateSubscriptionPrice();
+        for (String[] column : MONEY_COLUMNS) {
+            migrateMoneyColumn(column[0], column[1]);
+        }
+        createCheckCodeIndex();
+        createUserOrdersIndex();
+    }
+
+    /**
+     * Copy the legacy string column subscriptions.price into price_vnd and drop it once every row
+     * has a numeric price. Rows that cannot be parsed are logged and keep the legacy column alive,
+     * made nullable since Hibernate no longer writes it.
+     */
+    private void migrateSubscriptionPrice() {
+        ColumnInfo legacy = columnType("subscriptions", "price");
+        if (legacy == null) {
+            return;
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, price FROM subscriptions WHERE price_vnd IS NULL");
+        int unparsed = 0;
+        for (Map<String, Object> row : rows) {
+            Object id = row.get("id");
+            String raw = (String) row.get("price");
+            try {
+                long vnd = parseLegacyPrice(raw);
+                jdbcTemplate.update("UPDATE subscriptions SET price_vnd = ? WHERE id = ?", vnd, id);
+            } catch (RuntimeException e) {
+                unparsed++;
+                logger.warn("Subscription {} has unparseable legacy price '{}'; set price_vnd manually", id, raw);
+            }
+        }
+
+        if (unparsed == 0) {
+            jdbcTemplate.execute("ALTER TABLE subscriptions DROP COLUMN price");
+            logger.info("Backfilled price_vnd for {} subscriptions and dropped legacy column subscriptions.price",
+                    rows.size());
+        } else if (!legacy.nullable) {
+            // Otherwise every new subscription INSERT fails on the column Hibernate no longer maps
+            String size = legacy.size > 8000 ? "MAX" : String.valueOf(legacy.size);
+            jdbcTemplate.execute("ALTER TABLE subscriptions ALTER COLUMN price " + legacy.typeName + "(" + size + ") NULL");
+            logger.info("Kept legacy column subscriptions.price for {} unparsed rows and made it nullable", unparsed);
+        }
+    }
+
+    private void migrateMoneyColumn(String table, String column) {
+        ColumnInfo info = columnType(table, column);
+        if (info == null || info.sqlType == Types.BIGINT) {
+            return;
+        }
+        if (info.sqlType != Types.DOUBLE && info.sqlType != Types.FLOAT && info.sqlType != Types.REAL
+                && info.sqlType != Types.DECIMAL && info.sqlType != Types.NUMERIC) {
+            logger.warn("Not migrating {}.{}: unexpected column type {}", table, column, info.typeName);
+            return;
+        }
+
+        // Hibernate's schema update converts these itself on some dialects; this covers the rest.
+        // Round first so the conversion does not truncate values like 498999.99999
+        jdbcTemplate.update("UPDATE " + table + " SET " + column + " = ROUND(" + column + ", 0)"
+                + " WHERE " + column + " <> ROUND(" + column + ", 0)");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " BIGINT"
+                + (info.nullable ? " NULL" : " NOT NULL"));
+        logger.info("Converted {}.{} from {} to BIGINT", table, column, info.typeName);
+    }
+
+    /**
+     * Unique index for check-code lookups that still allows any number of orders without a code.
+     * SQL Server (and H2 in its compatibility mode) treats NULLs as equal in a plain unique index,
+     * so the index is filtered there and declared NULLS DISTINCT on H2.
+     */
+    private void createCheckCodeIndex() {
+        if (hasIndex("orders", "ux_orders_check_code")) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE orders SET check_code = NULL WHERE LTRIM(RTRIM(check_code)) = ''");
+        List<String> duplicates = jdbcTemplate.queryForList(
+                "SELECT check_code FROM orders WHERE check_code IS NOT NULL GROUP BY check_code HAVING COUNT(*) > 1",
+                String.class);
+        if (!duplicates.isEmpty()) {
+            logger.warn("Not creating ux_orders_check_code: duplicate check codes {}; lookups of these codes"
+                    + " answer 409 until they are fixed", duplicates);
+            return;
+        }
+        if (databaseDialect.isSqlServer()) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX ux_orders_check_code ON orders (check_code) WHERE check_code IS NOT NULL");
+        } else if (databaseDialect.isH2()) {
+            jdbcTemplate.execute("CREATE UNIQUE NULLS DISTINCT INDEX ux_orders_check_code ON orders (check_code)");
+        } else {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX ux_orders_check_code ON orders (check_code)");
+        }
+        logger.info("Created unique index ux_orders_check_code");
+    }
+
+    /**
+     * Covering index for the per-user order history (OrderRepository.findUserOrderSummaries*):
+     * seek on user and status, already in date order, with the listed columns in the leaf so the
+     * clustered index is never read. Databases without INCLUDE get the key columns only.
+     */
+    private void createUserOrdersIndex() {
+        if (hasIndex("orders", "ix_orders_user_status_date")) {
+            return;
+        }
+        if (databaseDialect.isSqlServer()) {
+            jdbcTemplate.execute("CREATE INDEX ix_orders_user_status_date ON orders (user_id, status, order_date DESC)"
+                    + " INCLUDE (total_price, check_code)");
+        } else {
+            jdbcTemplate.execute("CREATE INDEX ix_orders_user_status_date ON orders (user_id, status, order_date DESC)");
+        }
+        logger.info("Created index ix_orders_user_status_date");
+    }
+
+    private boolean hasIndex(String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, name, false, false)) {
+                    while (rs.next()) {
+                        if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private ColumnInfo columnType(String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<ColumnInfo>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Identifier case depends on the database; try as written, then upper case
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, name, null)) {
+                    while (rs.next()) {
+                        if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                            return new ColumnInfo(rs.getInt("DATA_TYPE"), rs.getString("TYPE_NAME"), rs.getInt("COLUMN_SIZE"),
+                                    rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Legacy price strings, e.g. "190000", "190,000", "190.000" (dots as thousand separators)
+     * or "199" (in thousands, i.e. 199000 VND).
+     */
+    static long parseLegacyPrice(String priceStr) {
+        if (priceStr == null) throw new IllegalArgumentException("price is null");
+        String cleaned = priceStr.replaceAll("[\\s,₫$€£]", "");
+        if (cleaned.chars().filter(ch -> ch == '.').count() > 1) {
+            cleaned = cleaned.replace(".", "");
+        } else if (cleaned.contains(".")) {
+            // A single dot followed by exactly three digits is a thousand separator
+            int idx = cleaned.indexOf('.');
+            if (cleaned.length() - idx - 1 == 3) {
+                cleaned = cleaned.replace(".", "");
+            }
+        }
+
+        double value = Double.parseDouble(cleaned);
+        if (value > 0 && value < 1000) {
+            value = value * 1000;
+        }
+        return Math.round(value);
+    }
+
+    private record ColumnInfo(int sqlType, String typeName, int size, boolean nullable) {
+    }
+}
@@ -1,5 +1,9 @@
 package com.v2r.v2rbackend.config;
 
+import com.v2r.v2rbackend.security.BCryptCostCalibrator;
+import com.v2r.v2rbackend.security.BoundedPasswordEncoder;
+import com.v2r.v2rbackend.security.CostAwareBCryptPasswordEncoder;
+import com.v2r.v2rbackend.security.PasswordHashingExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,8 +16,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
@@ -26,16 +30,24 @@ public class SecurityConfig {
     @Autowired(required = false)
     private UserDetailsService userDetailsService;
 
+    // BCrypt runs on a dedicated bounded pool so login storms cannot pin every Tomcat thread.
+    // The cost comes from startup calibration against the configured latency budget.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                           BCryptCostCalibrator bCryptCostCalibrator) {
+        return new BoundedPasswordEncoder(
+                new CostAwareBCryptPasswordEncoder(bCryptCostCalibrator.getCost()), passwordHashingExecutor);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder());
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
         if (userDetailsService != null) {
             authenticationProvider.setUserDetailsService(userDetailsService);
+            // Rehash stored passwords whose BCrypt cost differs from the calibrated one on successful login
+            if (userDetailsService instanceof UserDetailsPasswordService userDetailsPasswordService) {
+                authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+            }
         }
         return authenticationProvider;
     }
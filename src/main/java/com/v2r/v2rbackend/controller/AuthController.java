@@ -1,27 +1,35 @@
 package com.v2r.v2rbackend.controller;
 
 import com.v2r.v2rbackend.dto.request.LoginRequest;
+import com.v2r.v2rbackend.dto.request.RefreshTokenRequest;
 import com.v2r.v2rbackend.dto.request.RegisterRequest;
 import com.v2r.v2rbackend.dto.request.VerifyOtpRequest;
 import com.v2r.v2rbackend.dto.response.AuthResponse;
 import com.v2r.v2rbackend.entity.User;
 import com.v2r.v2rbackend.repository.RoleRepository;
 import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.security.CustomUserDetailsService;
 import com.v2r.v2rbackend.security.JwtUtil;
+import com.v2r.v2rbackend.security.OtpRateLimiter;
+import com.v2r.v2rbackend.security.PasswordHashingRejectedException;
+import com.v2r.v2rbackend.security.RateLimitExceededException;
+import com.v2r.v2rbackend.security.UserPrincipal;
 import com.v2r.v2rbackend.service.OtpService;
+import com.v2r.v2rbackend.service.RefreshTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -51,11 +59,21 @@ public class AuthController {
     @Autowired
     private OtpService otpService;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private OtpRateLimiter otpRateLimiter;
+
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticate user and return JWT token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful"),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent logins, retry later")
     })
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
@@ -63,42 +81,58 @@ public class AuthController {
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
             );
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            
-            User user = userRepository.findByEmail(loginRequest.getEmail())
-                    .orElseThrow(() -> new EntityNotFoundException("User not found"));
+            // The principal already carries id, role and verified flag, so no second user lookup
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
 
             // Check if user is verified
-            if (!user.isVerified()) {
+            if (!principal.isVerified()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Account not verified. Please verify your account with the OTP sent to your email.");
             }
 
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("role", user.getRole() != null ? user.getRole().getRoleName() : "USER");
-            claims.put("userId", user.getUserID());
-
-            String token = jwtUtil.generateToken(userDetails.getUsername(), claims);
-
-            String roleName = user.getRole() != null ? user.getRole().getRoleName() : "USER";
-            AuthResponse response = new AuthResponse(token, user.getEmail(), roleName);
+            AuthResponse response = buildAuthResponse(principal, refreshTokenService.issue(principal.getUserId()));
 
             return ResponseEntity.ok(response);
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password");
+        } catch (PasswordHashingRejectedException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Login failed: " + e.getMessage());
         }
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh access token", description = "Exchange a refresh token for a new access token and a new refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or reused refresh token")
+    })
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        try {
+            // Never touches the password hash: the refresh token alone proves the session
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+            return ResponseEntity.ok(buildAuthResponse(UserPrincipal.from(rotation.getUser()), rotation.getRefreshToken()));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Refresh failed: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/register")
     @Operation(summary = "Register", description = "Register a new user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User registered successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input or email already exists"),
-            @ApiResponse(responseCode = "404", description = "Role not found")
+            @ApiResponse(responseCode = "404", description = "Role not found"),
+            @ApiResponse(responseCode = "429", description = "Too many OTP requests, retry later"),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent registrations, retry later")
     })
-    public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest, HttpServletRequest request) {
         try {
+            // Registration sends an OTP, so it shares the resend limits
+            otpRateLimiter.checkResend(registerRequest.getEmail(), clientIp(request));
+
             // Check if email already exists
             if (userRepository.existsByEmail(registerRequest.getEmail())) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Email already exists");
@@ -139,6 +173,10 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully. Please check your email for OTP verification code.");
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
+        } catch (PasswordHashingRejectedException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Registration failed: " + e.getMessage());
         }
@@ -149,10 +187,13 @@ public class AuthController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account verified successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid or expired OTP"),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts, retry later")
     })
-    public ResponseEntity<?> verifyOtp(@RequestBody VerifyOtpRequest verifyOtpRequest) {
+    public ResponseEntity<?> verifyOtp(@RequestBody VerifyOtpRequest verifyOtpRequest, HttpServletRequest request) {
         try {
+            otpRateLimiter.checkVerify(verifyOtpRequest.getEmail(), clientIp(request));
+
             // Verify OTP
             boolean isValid = otpService.verifyOtp(verifyOtpRequest.getEmail(), verifyOtpRequest.getOtpCode());
             
@@ -166,10 +207,14 @@ public class AuthController {
             
             user.setVerified(true);
             userRepository.save(user);
+            userDetailsService.evict(user.getEmail());
+            otpRateLimiter.onVerified(user.getEmail());
 
             return ResponseEntity.ok("Account verified successfully. You can now login.");
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Verification failed: " + e.getMessage());
         }
@@ -180,10 +225,14 @@ public class AuthController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OTP sent successfully"),
             @ApiResponse(responseCode = "404", description = "User not found"),
-            @ApiResponse(responseCode = "400", description = "User already verified")
+            @ApiResponse(responseCode = "400", description = "User already verified"),
+            @ApiResponse(responseCode = "429", description = "Cooldown active or too many OTP requests")
     })
-    public ResponseEntity<?> resendOtp(@RequestParam String email) {
+    public ResponseEntity<?> resendOtp(@RequestParam String email, HttpServletRequest request) {
         try {
+            // Checked before the user lookup and the SMTP send
+            otpRateLimiter.checkResend(email, clientIp(request));
+
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new EntityNotFoundException("User not found"));
             
@@ -195,8 +244,42 @@ public class AuthController {
             return ResponseEntity.ok("OTP sent successfully. Please check your email.");
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send OTP: " + e.getMessage());
         }
     }
+
+    private AuthResponse buildAuthResponse(UserPrincipal principal, String refreshToken) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", principal.getRoleName());
+        claims.put("userId", principal.getUserId());
+
+        String token = jwtUtil.generateToken(principal.getEmail(), claims);
+
+        AuthResponse response = new AuthResponse(token, principal.getEmail(), principal.getRoleName());
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtUtil.getExpirationMillis() / 1000);
+        return response;
+    }
+
+    private ResponseEntity<String> tooManyRequests(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // The connection's address only; X-Forwarded-For is client-controlled, so a forged hop would give
+    // every request its own per-IP bucket. Behind a proxy, server.forward-headers-strategy makes the
+    // container resolve the remote address from headers set by trusted proxies.
+    private static String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private ResponseEntity<String> serviceBusy(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body("Server is busy, please retry shortly");
+    }
 }
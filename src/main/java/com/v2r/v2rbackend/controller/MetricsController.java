@@ -0,0 +1,137 @@
+package com.v2r.v2rbackend.controller;
+
+import com.v2r.v2rbackend.mail.SmtpTransportPool;
+import com.v2r.v2rbackend.scheduler.EmailOutboxDispatcher;
+import com.v2r.v2rbackend.scheduler.OtpCodePurgeJob;
+import com.v2r.v2rbackend.security.BCryptCostCalibrator;
+import com.v2r.v2rbackend.security.CustomUserDetailsService;
+import com.v2r.v2rbackend.security.JwtUtil;
+import com.v2r.v2rbackend.security.OtpRateLimiter;
+import com.v2r.v2rbackend.security.PasswordHashingExecutor;
+import com.v2r.v2rbackend.service.IdempotencyService;
+import com.v2r.v2rbackend.service.OrderEventStream;
+import com.v2r.v2rbackend.service.OrderExportService;
+import com.v2r.v2rbackend.service.OtpStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@Tag(name = "Metrics", description = "In-memory runtime metrics for caches and background work")
+public class MetricsController {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private BCryptCostCalibrator bCryptCostCalibrator;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Autowired
+    private OtpCodePurgeJob otpCodePurgeJob;
+
+    @Autowired
+    private OtpRateLimiter otpRateLimiter;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private SmtpTransportPool smtpTransportPool;
+
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @GetMapping("/jwt-cache")
+    @Operation(summary = "Verified JWT cache stats", description = "Hit/miss counters of the verified-token cache")
+    public ResponseEntity<Map<String, Object>> getJwtCacheStats() {
+        return ResponseEntity.ok(jwtUtil.getCacheStats());
+    }
+
+    @GetMapping("/user-details-cache")
+    @Operation(summary = "UserDetails cache stats", description = "Hit ratio and eviction counters of the login UserDetails cache")
+    public ResponseEntity<Map<String, Object>> getUserDetailsCacheStats() {
+        return ResponseEntity.ok(userDetailsService.getCacheStats());
+    }
+
+    @GetMapping("/password-hashing")
+    @Operation(summary = "Password hashing pool stats", description = "Queue depth, rejections and BCrypt latency")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingExecutor.stats());
+    }
+
+    @GetMapping("/bcrypt")
+    @Operation(summary = "BCrypt calibration report", description = "Selected cost and startup benchmark in hashes/sec per cost factor")
+    public ResponseEntity<Map<String, Object>> getBCryptReport() {
+        return ResponseEntity.ok(bCryptCostCalibrator.report());
+    }
+
+    @GetMapping("/otp-store")
+    @Operation(summary = "OTP store stats", description = "Active backend and pending code counters")
+    public ResponseEntity<Map<String, Object>> getOtpStoreStats() {
+        return ResponseEntity.ok(otpStore.stats());
+    }
+
+    @GetMapping("/otp-purge")
+    @Operation(summary = "otp_codes purge stats", description = "Rows deleted and chunk latency of the chunked otp_codes purge")
+    public ResponseEntity<Map<String, Object>> getOtpPurgeStats() {
+        return ResponseEntity.ok(otpCodePurgeJob.stats());
+    }
+
+    @GetMapping("/otp-rate-limits")
+    @Operation(summary = "OTP throttling stats", description = "Tracked keys, allowed and rejected counts per OTP limiter")
+    public ResponseEntity<Map<String, Object>> getOtpRateLimitStats() {
+        return ResponseEntity.ok(otpRateLimiter.stats());
+    }
+
+    @GetMapping("/email-outbox")
+    @Operation(summary = "Email outbox stats", description = "Backlog by status, delivery counters and average send latency")
+    public ResponseEntity<Map<String, Object>> getEmailOutboxStats() {
+        return ResponseEntity.ok(emailOutboxDispatcher.stats());
+    }
+
+    @GetMapping("/smtp-pool")
+    @Operation(summary = "SMTP session pool stats", description = "Open, idle and reused SMTP sessions and messages sent")
+    public ResponseEntity<Map<String, Object>> getSmtpPoolStats() {
+        return ResponseEntity.ok(smtpTransportPool.stats());
+    }
+
+    @GetMapping("/order-stream")
+    @Operation(summary = "Order event stream stats", description = "Open SSE connections, delivered events and slow-consumer disconnects")
+    public ResponseEntity<Map<String, Object>> getOrderStreamStats() {
+        return ResponseEntity.ok(orderEventStream.stats());
+    }
+
+    @GetMapping("/idempotency")
+    @Operation(summary = "Idempotency key stats", description = "Executed requests, replays from the local and stored tiers, waits and key conflicts")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        return ResponseEntity.ok(idempotencyService.stats());
+    }
+
+    @GetMapping("/order-export")
+    @Operation(summary = "Order export stats", description = "Running, completed, cancelled and rejected streaming exports and rows written")
+    public ResponseEntity<Map<String, Object>> getOrderExportStats() {
+        return ResponseEntity.ok(orderExportService.stats());
+    }
+}
@@ -1,17 +1,46 @@
 package com.v2r.v2rbackend.controller;
 
+import com.v2r.v2rbackend.dto.BulkStatusUpdateRequest;
+import com.v2r.v2rbackend.dto.BulkStatusUpdateResponse;
 import com.v2r.v2rbackend.dto.CreateOrderRequest;
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.OrderResponse;
+import com.v2r.v2rbackend.dto.RevenueRow;
 import com.v2r.v2rbackend.dto.UpdateCheckCodeRequest;
 import com.v2r.v2rbackend.dto.UpdateStatusRequest;
+import com.v2r.v2rbackend.security.CurrentUser;
+import com.v2r.v2rbackend.security.UserPrincipal;
+import com.v2r.v2rbackend.service.IdempotencyService;
+import com.v2r.v2rbackend.service.OrderEventStream;
+import com.v2r.v2rbackend.service.OrderExportService;
 import com.v2r.v2rbackend.service.OrderService;
+import com.v2r.v2rbackend.service.OrderTotalsService;
+import com.v2r.v2rbackend.service.RevenueRollupService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -20,6 +49,21 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderTotalsService orderTotalsService;
+
     @GetMapping
     public ResponseEntity<Page<OrderResponse>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
@@ -30,33 +74,211 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    // Keyset pagination: pass nextCursor from the previous page as "after"
+    @GetMapping("/scroll")
+    public ResponseEntity<?> scrollOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<OrderResponse> orders = orderService.scrollOrders(after, size, includeTotal);
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Push feed of committed order changes for dashboards; EventSource resends Last-Event-ID on reconnect
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = orderEventStream.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
     @GetMapping("/total-price/status/{status}")
-    public ResponseEntity<Double> getTotalPriceByStatus(@PathVariable int status) {
-        Double totalPrice = orderService.getTotalPriceByStatus(status);
+    public ResponseEntity<Long> getTotalPriceByStatus(@PathVariable int status) {
+        Long totalPrice = orderService.getTotalPriceByStatus(status);
         return ResponseEntity.ok(totalPrice);
     }
 
+    // Recompute order_status_totals from orders when the maintained totals are in use
+    @PostMapping("/total-price/rebuild")
+    public ResponseEntity<?> rebuildTotalPrice() {
+        try {
+            return ResponseEntity.ok(orderTotalsService.rebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Streams every matching order line from a JDBC cursor; memory use does not grow with the export
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        OrderExportService.Format exportFormat;
+        OrderExportService.Export body;
+        try {
+            exportFormat = OrderExportService.Format.parse(format);
+            body = orderExportService.open(exportFormat, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(textBody(e.getMessage()));
+        }
+        if (body == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(textBody("Too many exports running, retry later"));
+        }
+        // Runs when the async request ends for any reason, including a timeout or an executor
+        // rejection before the body starts, so the permit cannot leak
+        OrderExportService.Export export = body;
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(OrderExportService.Export.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        export.release();
+                    }
+                });
+        String filename = "orders" + (from != null ? "-from-" + from : "") + (to != null ? "-to-" + to : "")
+                + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Revenue per plan and day or month, read from revenue_rollup only
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) Integer status) {
+        try {
+            List<RevenueRow> rows = revenueRollupService.getRevenue(from, to, granularity, status);
+            return ResponseEntity.ok(rows);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Recompute revenue_rollup for a date range from orders, e.g. after fixing order data by hand
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<?> rebuildRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(revenueRollupService.rebuild(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Clients retry on timeouts; with an Idempotency-Key header a retry replays the first response
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         @CurrentUser UserPrincipal caller) {
+        String scope = IdempotencyService.scope("orders.create", caller, request != null ? request.getUserId() : null);
+        return idempotencyService.execute(scope, idempotencyKey, request,
+                () -> ResponseEntity.ok(orderService.createOrder(request)));
+    }
+
+    // Desk lookup, an index seek on check_code
+    @GetMapping("/check-code/{code}")
+    public ResponseEntity<?> getOrderByCheckCode(@PathVariable String code) {
+        try {
+            return orderService.findByCheckCode(code)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Order not found with check code: " + code));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Creates all orders or none; faster than one POST per order for imports and back-office batches
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createOrders(@RequestBody List<CreateOrderRequest> requests,
+                                          @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                          @CurrentUser UserPrincipal caller) {
+        String scope = IdempotencyService.scope("orders.bulk", caller, singleUserId(requests));
+        return idempotencyService.execute(scope, idempotencyKey, requests, () -> {
+            try {
+                List<OrderResponse> created = orderService.createOrders(requests);
+                return ResponseEntity.ok(created);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
     @PutMapping("/{id}/checkcode")
-    public ResponseEntity<OrderResponse> updateCheckCode(@PathVariable Integer id, @RequestBody UpdateCheckCodeRequest req) {
+    public ResponseEntity<?> updateCheckCode(@PathVariable Integer id, @RequestBody UpdateCheckCodeRequest req) {
         if (id == null || req == null) {
             return ResponseEntity.badRequest().build();
         }
-        OrderResponse res = orderService.updateCheckCode(id, req.getCheckCode());
-        return ResponseEntity.ok(res);
+        try {
+            OrderResponse res = orderService.updateCheckCode(id, req.getCheckCode());
+            return ResponseEntity.ok(res);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<OrderResponse> updateStatus(@PathVariable Integer id, @RequestBody UpdateStatusRequest req) {
+    public ResponseEntity<?> updateStatus(@PathVariable Integer id, @RequestBody UpdateStatusRequest req) {
         if (id == null || req == null || req.getStatus() == null) {
             return ResponseEntity.badRequest().build();
         }
-        OrderResponse res = orderService.updateStatus(id, req.getStatus());
-        return ResponseEntity.ok(res);
+        try {
+            OrderResponse res = orderService.updateStatus(id, req.getStatus());
+            return ResponseEntity.ok(res);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Moves many orders at once; allowed transitions are 1 -> 2 and 2 -> 3, results are per id
+    @PostMapping("/status/bulk")
+    public ResponseEntity<?> bulkUpdateStatus(@RequestBody BulkStatusUpdateRequest req) {
+        if (req == null || req.getStatus() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            BulkStatusUpdateResponse res = orderService.bulkUpdateStatus(req.getOrderIds(), req.getStatus());
+            return ResponseEntity.ok(res);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // The one user every order in the batch is for, or null for a mixed or empty batch
+    private static Integer singleUserId(List<CreateOrderRequest> requests) {
+        if (requests == null) {
+            return null;
+        }
+        Set<Integer> userIds = new HashSet<>();
+        for (CreateOrderRequest request : requests) {
+            userIds.add(request != null ? request.getUserId() : null);
+        }
+        return userIds.size() == 1 ? userIds.iterator().next() : null;
+    }
+
+    private static StreamingResponseBody textBody(String message) {
+        return out -> out.write(message.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.v2r.v2rbackend.controller;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.SubscriptionDTO;
+import com.v2r.v2rbackend.entity.Money;
 import com.v2r.v2rbackend.entity.Subscription;
 import com.v2r.v2rbackend.service.SubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -42,6 +44,26 @@ public class SubscriptionController {
         }
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get subscriptions with keyset pagination", description = "Pages by id without OFFSET. Pass nextCursor from the previous page as 'after'; the total count is only computed when includeTotal=true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<?> scrollSubscriptions(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<Subscription> subscriptions = subscriptionService.scroll(after, size, includeTotal);
+            return ResponseEntity.ok(subscriptions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving subscriptions: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get subscription by ID", description = "Retrieve a specific subscription by its ID")
     @ApiResponses(value = {
@@ -105,7 +127,7 @@ public class SubscriptionController {
             Subscription subscription = new Subscription();
             subscription.setName(subscriptionDTO.getName());
             subscription.setStatus(subscriptionDTO.isStatus());
-            subscription.setPrice(subscriptionDTO.getPrice());
+            subscription.setPrice(subscriptionDTO.getPrice() != null ? Money.of(subscriptionDTO.getPrice()) : null);
             subscription.setNumberOfModel(subscriptionDTO.getNumberOfModel());
             
             Subscription createdSubscription = subscriptionService.save(subscription);
@@ -130,7 +152,7 @@ public class SubscriptionController {
             Subscription subscription = new Subscription();
             subscription.setName(subscriptionDTO.getName());
             subscription.setStatus(subscriptionDTO.isStatus());
-            subscription.setPrice(subscriptionDTO.getPrice());
+            subscription.setPrice(subscriptionDTO.getPrice() != null ? Money.of(subscriptionDTO.getPrice()) : null);
             subscription.setNumberOfModel(subscriptionDTO.getNumberOfModel());
             
             Subscription updatedSubscription = subscriptionService.update(id, subscription);
@@ -1,8 +1,14 @@
 package com.v2r.v2rbackend.controller;
 
+import com.v2r.v2rbackend.dto.CursorPage;
+import com.v2r.v2rbackend.dto.OrderResponse;
 import com.v2r.v2rbackend.dto.request.CreateUserRequest;
 import com.v2r.v2rbackend.dto.response.UserResponse;
 import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.security.CurrentUser;
+import com.v2r.v2rbackend.security.PasswordHashingRejectedException;
+import com.v2r.v2rbackend.security.UserPrincipal;
+import com.v2r.v2rbackend.service.OrderService;
 import com.v2r.v2rbackend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,11 +18,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "Users", description = "Operations related to users")
@@ -24,9 +34,12 @@ public class UserController {
 
     private final UserService userService;
 
+    private final OrderService orderService;
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, OrderService orderService) {
         this.userService = userService;
+        this.orderService = orderService;
     }
 
     @GetMapping
@@ -39,6 +52,44 @@ public class UserController {
         return ResponseEntity.ok(userService.findAllWithRoles(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get users with keyset pagination",
+               description = "Pages by user id without OFFSET. Pass nextCursor from the previous page as 'after'; "
+                       + "the total count is only computed when includeTotal=true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of users"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<?> scrollUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<User> users = userService.scrollWithRoles(after, size, includeTotal);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/me")
+    @Operation(summary = "Get the current user", description = "Identity of the caller, read from the JWT principal without a database lookup")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Current user"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token")
+    })
+    public ResponseEntity<?> getCurrentUser(@CurrentUser UserPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", principal.getUserId());
+        body.put("email", principal.getEmail());
+        body.put("role", principal.getRoleName());
+        body.put("verified", principal.isVerified());
+        return ResponseEntity.ok(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID")
     public ResponseEntity<User> getUserById(@PathVariable Integer id) {
@@ -47,12 +98,34 @@ public class UserController {
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
     }
 
+    @GetMapping("/{id}/orders")
+    @Operation(summary = "Get a user's orders",
+               description = "Order history of one user, newest first, optionally filtered by status. "
+                       + "Served from an index on orders; userEmail is not filled in.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One page of orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid status")
+    })
+    public ResponseEntity<?> getUserOrders(
+            @PathVariable Integer id,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Page<OrderResponse> orders = orderService.getUserOrders(id, status, PageRequest.of(page, size));
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     @PostMapping
     @Operation(summary = "Create a new user", description = "Create a new user with email, password, and role")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input or email already exists"),
-            @ApiResponse(responseCode = "404", description = "Role not found")
+            @ApiResponse(responseCode = "404", description = "Role not found"),
+            @ApiResponse(responseCode = "503", description = "Password hashing capacity exhausted, retry later")
     })
     public ResponseEntity<?> createUser(@RequestBody CreateUserRequest request) {
         try {
@@ -82,6 +155,10 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body("Server is busy, please retry shortly");
         }
     }
 
@@ -1,8 +1,12 @@
 package com.v2r.v2rbackend.controller;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.request.SubscriptionRegistrationRequest;
 import com.v2r.v2rbackend.dto.response.UserSubscriptionResponse;
 import com.v2r.v2rbackend.entity.UserSubscription;
+import com.v2r.v2rbackend.security.CurrentUser;
+import com.v2r.v2rbackend.security.UserPrincipal;
+import com.v2r.v2rbackend.service.IdempotencyService;
 import com.v2r.v2rbackend.service.UserSubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -31,6 +35,9 @@ public class UserSubscriptionController {
     @Autowired
     private UserSubscriptionService userSubscriptionService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/register")
     @Operation(summary = "Register user to subscription after payment", 
                description = "Register a user to a subscription plan after payment is completed")
@@ -39,18 +46,24 @@ public class UserSubscriptionController {
             @ApiResponse(responseCode = "400", description = "Invalid input or subscription inactive"),
             @ApiResponse(responseCode = "404", description = "User or subscription not found")
     })
-    public ResponseEntity<?> registerUserToSubscription(@RequestBody SubscriptionRegistrationRequest request) {
-        try {
-            UserSubscriptionResponse response = userSubscriptionService.registerUserToSubscription(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (EntityNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error registering user to subscription: " + e.getMessage());
-        }
+    public ResponseEntity<?> registerUserToSubscription(@RequestBody SubscriptionRegistrationRequest request,
+                                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                        @CurrentUser UserPrincipal caller) {
+        String scope = IdempotencyService.scope("user-subscriptions.register", caller,
+                request != null ? request.getUserId() : null);
+        return idempotencyService.execute(scope, idempotencyKey, request, () -> {
+            try {
+                UserSubscriptionResponse response = userSubscriptionService.registerUserToSubscription(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (EntityNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error registering user to subscription: " + e.getMessage());
+            }
+        });
     }
 
     @GetMapping
@@ -68,6 +81,24 @@ public class UserSubscriptionController {
         }
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get user subscriptions with keyset pagination", 
+               description = "Pages by id without OFFSET. Pass nextCursor from the previous page as 'after'; the total count is only computed when includeTotal=true.")
+    public ResponseEntity<?> scrollUserSubscriptions(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<UserSubscription> subscriptions = userSubscriptionService.scroll(after, size, includeTotal);
+            return ResponseEntity.ok(subscriptions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving subscriptions: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get user subscription by ID", 
                description = "Retrieve a specific user subscription by its ID")
@@ -160,24 +191,30 @@ public class UserSubscriptionController {
             @ApiResponse(responseCode = "400", description = "Invalid input or subscription inactive"),
             @ApiResponse(responseCode = "404", description = "User or subscription not found")
     })
-    public ResponseEntity<?> changeSubscription(@RequestBody com.v2r.v2rbackend.dto.request.ChangeSubscriptionRequest request) {
-        try {
-            logger.info("Processing subscription change request for userId: {}, subscriptionId: {}", 
-                       request.getUserId(), request.getSubscriptionId());
-            UserSubscriptionResponse response = userSubscriptionService.changeUserSubscription(request);
-            logger.info("Subscription changed successfully for userId: {}", request.getUserId());
-            return ResponseEntity.ok(response);
-        } catch (EntityNotFoundException e) {
-            logger.error("Entity not found during subscription change: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Not found: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("Invalid argument during subscription change: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid input: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error during subscription change", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Backend error: Unable to process subscription change. Error: " + e.getClass().getSimpleName() + " - " + e.getMessage());
-        }
+    public ResponseEntity<?> changeSubscription(@RequestBody com.v2r.v2rbackend.dto.request.ChangeSubscriptionRequest request,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                @CurrentUser UserPrincipal caller) {
+        String scope = IdempotencyService.scope("user-subscriptions.change", caller,
+                request != null ? request.getUserId() : null);
+        return idempotencyService.execute(scope, idempotencyKey, request, () -> {
+            try {
+                logger.info("Processing subscription change request for userId: {}, subscriptionId: {}", 
+                           request.getUserId(), request.getSubscriptionId());
+                UserSubscriptionResponse response = userSubscriptionService.changeUserSubscription(request);
+                logger.info("Subscription changed successfully for userId: {}", request.getUserId());
+                return ResponseEntity.ok(response);
+            } catch (EntityNotFoundException e) {
+                logger.error("Entity not found during subscription change: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Not found: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid argument during subscription change: {}", e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid input: " + e.getMessage());
+            } catch (Exception e) {
+                logger.error("Unexpected error during subscription change", e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Backend error: Unable to process subscription change. Error: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/check-expired")
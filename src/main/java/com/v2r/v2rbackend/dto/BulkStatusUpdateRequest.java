@@ -0,0 +1,24 @@
+package com.v2r.v2rbackend.dto;
+
+import java.util.List;
+
+public class BulkStatusUpdateRequest {
+    private List<Integer> orderIds;
+    private Integer status;
+
+    public List<Integer> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Integer> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+}
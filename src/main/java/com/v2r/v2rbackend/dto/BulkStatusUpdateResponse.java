@@ -0,0 +1,66 @@
+package com.v2r.v2rbackend.dto;
+
+import java.util.List;
+
+public class BulkStatusUpdateResponse {
+
+    public enum Outcome {
+        UPDATED,
+        ALREADY_IN_STATUS,
+        INVALID_TRANSITION,
+        NOT_FOUND
+    }
+
+    private int status;
+    private int requested;
+    private int updated;
+    private List<Result> results;
+
+    public BulkStatusUpdateResponse(int status, int requested, int updated, List<Result> results) {
+        this.status = status;
+        this.requested = requested;
+        this.updated = updated;
+        this.results = results;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public static class Result {
+        private final int orderId;
+        private final Outcome outcome;
+        // Status before the request; null when the order does not exist
+        private final Integer previousStatus;
+
+        public Result(int orderId, Outcome outcome, Integer previousStatus) {
+            this.orderId = orderId;
+            this.outcome = outcome;
+            this.previousStatus = previousStatus;
+        }
+
+        public int getOrderId() {
+            return orderId;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public Integer getPreviousStatus() {
+            return previousStatus;
+        }
+    }
+}
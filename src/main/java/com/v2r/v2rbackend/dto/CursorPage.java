@@ -0,0 +1,51 @@
+package com.v2r.v2rbackend.dto;
+
+import com.v2r.v2rbackend.util.KeysetCursor;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a keyset (seek) listing. {@code nextCursor} is null on the last page and
+ * {@code total} is only filled in when the client asked for it, since it costs a COUNT.
+ */
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasMore;
+    private final Long total;
+
+    public CursorPage(List<T> content, String nextCursor, boolean hasMore, Long total) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.total = total;
+    }
+
+    /**
+     * Build a page from rows fetched with a limit of {@code size + 1}; the extra row only tells
+     * whether another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, ToIntFunction<T> idOf, Long total) {
+        boolean hasMore = fetched.size() > size;
+        List<T> content = hasMore ? fetched.subList(0, size) : fetched;
+        String nextCursor = hasMore ? KeysetCursor.encode(idOf.applyAsInt(content.get(content.size() - 1))) : null;
+        return new CursorPage<>(content, nextCursor, hasMore, total);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+}
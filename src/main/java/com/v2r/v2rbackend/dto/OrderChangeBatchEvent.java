@@ -0,0 +1,30 @@
+package com.v2r.v2rbackend.dto;
+
+import java.util.List;
+
+/**
+ * The changes made by one bulk call (POST /api/orders/bulk, POST /api/orders/status/bulk), pushed
+ * to /api/orders/stream as a single "orders" event instead of one event per order.
+ */
+public class OrderChangeBatchEvent {
+
+    private final OrderChangeEvent.Type type;
+    private final List<OrderChangeEvent> changes;
+
+    public OrderChangeBatchEvent(OrderChangeEvent.Type type, List<OrderChangeEvent> changes) {
+        this.type = type;
+        this.changes = List.copyOf(changes);
+    }
+
+    public OrderChangeEvent.Type getType() {
+        return type;
+    }
+
+    public int getCount() {
+        return changes.size();
+    }
+
+    public List<OrderChangeEvent> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,69 @@
+package com.v2r.v2rbackend.dto;
+
+import java.util.Date;
+
+/**
+ * Compact order change pushed to /api/orders/stream. Published by OrderService inside the
+ * transaction and delivered to subscribers only after it commits.
+ */
+public class OrderChangeEvent {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        CHECK_CODE_CHANGED
+    }
+
+    private final Type type;
+    private final int orderID;
+    private final Integer userId;
+    private final int status;
+    private final Integer previousStatus;
+    private final String checkCode;
+    private final long totalPrice;
+    private final Date at;
+
+    public OrderChangeEvent(Type type, int orderID, Integer userId, int status, Integer previousStatus,
+                            String checkCode, long totalPrice) {
+        this.type = type;
+        this.orderID = orderID;
+        this.userId = userId;
+        this.status = status;
+        this.previousStatus = previousStatus;
+        this.checkCode = checkCode;
+        this.totalPrice = totalPrice;
+        this.at = new Date();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getOrderID() {
+        return orderID;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Integer getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public String getCheckCode() {
+        return checkCode;
+    }
+
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    public Date getAt() {
+        return at;
+    }
+}
@@ -5,8 +5,8 @@ public class OrderDetailResponse {
     private Integer subscriptionId;
     private String subscriptionName;
     private Integer quantity;
-    private Double pricePerUnit;
-    private Double totalPrice;
+    private Long pricePerUnit;
+    private Long totalPrice;
 
     public Integer getOrderDetailId() {
         return orderDetailId;
@@ -40,19 +40,19 @@ public class OrderDetailResponse {
         this.quantity = quantity;
     }
 
-    public Double getPricePerUnit() {
+    public Long getPricePerUnit() {
         return pricePerUnit;
     }
 
-    public void setPricePerUnit(Double pricePerUnit) {
+    public void setPricePerUnit(Long pricePerUnit) {
         this.pricePerUnit = pricePerUnit;
     }
 
-    public Double getTotalPrice() {
+    public Long getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Long totalPrice) {
         this.totalPrice = totalPrice;
     }
 }
@@ -0,0 +1,42 @@
+package com.v2r.v2rbackend.dto;
+
+import com.v2r.v2rbackend.entity.Money;
+
+/**
+ * One order line with its plan name, read by the listing projection in OrderRepository.
+ */
+public class OrderDetailRow {
+    private final Integer orderID;
+    private final Integer orderDetailId;
+    private final Integer subscriptionId;
+    private final String subscriptionName;
+    private final Integer quantity;
+    private final Money pricePerUnit;
+    private final Money totalPrice;
+
+    public OrderDetailRow(Integer orderID, Integer orderDetailId, Integer subscriptionId, String subscriptionName,
+                          Integer quantity, Money pricePerUnit, Money totalPrice) {
+        this.orderID = orderID;
+        this.orderDetailId = orderDetailId;
+        this.subscriptionId = subscriptionId;
+        this.subscriptionName = subscriptionName;
+        this.quantity = quantity;
+        this.pricePerUnit = pricePerUnit;
+        this.totalPrice = totalPrice;
+    }
+
+    public Integer getOrderID() {
+        return orderID;
+    }
+
+    public OrderDetailResponse toResponse() {
+        OrderDetailResponse dr = new OrderDetailResponse();
+        dr.setOrderDetailId(orderDetailId);
+        dr.setSubscriptionId(subscriptionId);
+        dr.setSubscriptionName(subscriptionName);
+        dr.setQuantity(quantity);
+        dr.setPricePerUnit(pricePerUnit != null ? pricePerUnit.getVnd() : null);
+        dr.setTotalPrice(totalPrice != null ? totalPrice.getVnd() : null);
+        return dr;
+    }
+}
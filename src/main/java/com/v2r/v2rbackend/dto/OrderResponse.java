@@ -8,7 +8,7 @@ public class OrderResponse {
     private Integer userId;
     private String userEmail;
     private Date orderDate;
-    private Double totalPrice;
+    private Long totalPrice;
     private List<OrderDetailResponse> orderDetails;
     private String checkCode;
     private Integer status;
@@ -45,11 +45,11 @@ public class OrderResponse {
         this.orderDate = orderDate;
     }
 
-    public Double getTotalPrice() {
+    public Long getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Long totalPrice) {
         this.totalPrice = totalPrice;
     }
 
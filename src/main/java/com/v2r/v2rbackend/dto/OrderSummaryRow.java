@@ -0,0 +1,64 @@
+package com.v2r.v2rbackend.dto;
+
+import com.v2r.v2rbackend.entity.Money;
+
+import java.util.Date;
+
+/**
+ * One order header row from the listing projection in OrderRepository; nothing is managed by
+ * the persistence context.
+ */
+public class OrderSummaryRow {
+    private final Integer orderID;
+    private final Integer userId;
+    private final String userEmail;
+    private final Date orderDate;
+    private final Money totalPrice;
+    private final String checkCode;
+    private final Integer status;
+
+    public OrderSummaryRow(Integer orderID, Integer userId, String userEmail, Date orderDate,
+                           Money totalPrice, String checkCode, Integer status) {
+        this.orderID = orderID;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.orderDate = orderDate;
+        this.totalPrice = totalPrice;
+        this.checkCode = checkCode;
+        this.status = status;
+    }
+
+    // Rows read without the users table (per-user history); the caller already knows the user
+    public OrderSummaryRow(Integer orderID, Integer userId, Date orderDate, Money totalPrice,
+                           String checkCode, Integer status) {
+        this(orderID, userId, null, orderDate, totalPrice, checkCode, status);
+    }
+
+    public Integer getOrderID() {
+        return orderID;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public Date getOrderDate() {
+        return orderDate;
+    }
+
+    public Money getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getCheckCode() {
+        return checkCode;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,41 @@
+package com.v2r.v2rbackend.dto;
+
+/**
+ * Revenue of one subscription plan in one period ("2026-10-18" for days, "2026-10" for months),
+ * read from revenue_rollup. Amounts are whole VND.
+ */
+public class RevenueRow {
+    private final String period;
+    private final int subscriptionId;
+    private final String subscriptionName;
+    private final long orderCount;
+    private final long amount;
+
+    public RevenueRow(String period, int subscriptionId, String subscriptionName, long orderCount, long amount) {
+        this.period = period;
+        this.subscriptionId = subscriptionId;
+        this.subscriptionName = subscriptionName;
+        this.orderCount = orderCount;
+        this.amount = amount;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public int getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public String getSubscriptionName() {
+        return subscriptionName;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
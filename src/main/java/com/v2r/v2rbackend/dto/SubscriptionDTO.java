@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 public class SubscriptionDTO {
     private String name;
     private boolean status;
-    private String price;
+    private Long price;
     private int numberOfModel;
 
     public String getName() {
@@ -27,11 +27,11 @@ public class SubscriptionDTO {
         this.status = status;
     }
 
-    public String getPrice() {
+    public Long getPrice() {
         return price;
     }
 
-    public void setPrice(String price) {
+    public void setPrice(Long price) {
         this.price = price;
     }
 
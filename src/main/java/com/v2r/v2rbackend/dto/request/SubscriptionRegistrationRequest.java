@@ -11,7 +11,7 @@ public class SubscriptionRegistrationRequest {
     private Integer subscriptionId;
     private Integer durationMonths = 1; // Duration in months (default: 1 month)
     private String paymentTransactionCode; // Optional: if payment is already done
-    private Double paymentAmount;
+    private Long paymentAmount;
 
     public Integer getUserId() {
         return userId;
@@ -45,11 +45,11 @@ public class SubscriptionRegistrationRequest {
         this.paymentTransactionCode = paymentTransactionCode;
     }
 
-    public Double getPaymentAmount() {
+    public Long getPaymentAmount() {
         return paymentAmount;
     }
 
-    public void setPaymentAmount(Double paymentAmount) {
+    public void setPaymentAmount(Long paymentAmount) {
         this.paymentAmount = paymentAmount;
     }
 }
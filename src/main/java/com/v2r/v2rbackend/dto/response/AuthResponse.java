@@ -10,6 +10,8 @@ public class AuthResponse {
     private String type = "Bearer";
     private String email;
     private String role;
+    private String refreshToken;
+    private Long expiresIn; // Access token lifetime in seconds
 
     public AuthResponse(String token, String email, String role) {
         this.token = token;
@@ -48,4 +50,20 @@ public class AuthResponse {
     public void setRole(String role) {
         this.role = role;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
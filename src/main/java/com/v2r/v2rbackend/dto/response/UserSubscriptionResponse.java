@@ -15,7 +15,7 @@ public class UserSubscriptionResponse {
     private String userFullName;
     private Integer subscriptionId;
     private String subscriptionName;
-    private String subscriptionPrice;
+    private Long subscriptionPrice;
     private Integer numberOfModel;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
@@ -70,11 +70,11 @@ public class UserSubscriptionResponse {
         this.subscriptionName = subscriptionName;
     }
 
-    public String getSubscriptionPrice() {
+    public Long getSubscriptionPrice() {
         return subscriptionPrice;
     }
 
-    public void setSubscriptionPrice(String subscriptionPrice) {
+    public void setSubscriptionPrice(Long subscriptionPrice) {
         this.subscriptionPrice = subscriptionPrice;
     }
 
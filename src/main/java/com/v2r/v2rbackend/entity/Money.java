@@ -0,0 +1,70 @@
+package com.v2r.v2rbackend.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Amount of money in whole VND (the currency has no minor unit in use). Stored as BIGINT through
+ * MoneyConverter and serialized as a plain JSON number, so prices and totals never go through
+ * floating point or string parsing.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private final long vnd;
+
+    private Money(long vnd) {
+        this.vnd = vnd;
+    }
+
+    @JsonCreator
+    public static Money of(long vnd) {
+        return vnd == 0 ? ZERO : new Money(vnd);
+    }
+
+    @JsonValue
+    public long getVnd() {
+        return vnd;
+    }
+
+    public Money plus(Money other) {
+        return of(Math.addExact(vnd, other.vnd));
+    }
+
+    public Money minus(Money other) {
+        return of(Math.subtractExact(vnd, other.vnd));
+    }
+
+    public Money times(int quantity) {
+        return of(Math.multiplyExact(vnd, quantity));
+    }
+
+    public Money negate() {
+        return of(Math.negateExact(vnd));
+    }
+
+    public boolean isNegative() {
+        return vnd < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(vnd, other.vnd);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && vnd == other.vnd);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(vnd);
+    }
+
+    @Override
+    public String toString() {
+        return vnd + " VND";
+    }
+}
@@ -0,0 +1,18 @@
+package com.v2r.v2rbackend.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.getVnd();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long vnd) {
+        return vnd == null ? null : Money.of(vnd);
+    }
+}
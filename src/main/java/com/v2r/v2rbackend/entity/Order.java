@@ -31,7 +31,7 @@ public class Order {
 
     @Temporal(TemporalType.TIMESTAMP)
     private Date order_date;
-    private double totalPrice;
+    private Money totalPrice = Money.ZERO;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
@@ -73,11 +73,11 @@ public class Order {
         this.order_date = order_date;
     }
 
-    public double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
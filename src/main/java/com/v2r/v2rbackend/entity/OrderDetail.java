@@ -25,15 +25,15 @@ public class OrderDetail {
     private int quantity; // Duration in months
 
     @Column(name = "price_per_unit", nullable = false)
-    private double pricePerUnit; // Price per month
+    private Money pricePerUnit; // Price per month
 
     @Column(name = "total_price", nullable = false)
-    private double totalPrice; // pricePerUnit * quantity
+    private Money totalPrice; // pricePerUnit * quantity
 
     public OrderDetail() {
     }
 
-    public OrderDetail(Order order, Subscription subscription, int quantity, double pricePerUnit, double totalPrice) {
+    public OrderDetail(Order order, Subscription subscription, int quantity, Money pricePerUnit, Money totalPrice) {
         this.order = order;
         this.subscription = subscription;
         this.quantity = quantity;
@@ -74,19 +74,19 @@ public class OrderDetail {
         this.quantity = quantity;
     }
 
-    public double getPricePerUnit() {
+    public Money getPricePerUnit() {
         return pricePerUnit;
     }
 
-    public void setPricePerUnit(double pricePerUnit) {
+    public void setPricePerUnit(Money pricePerUnit) {
         this.pricePerUnit = pricePerUnit;
     }
 
-    public double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 }
@@ -0,0 +1,54 @@
+package com.v2r.v2rbackend.entity;
+
+/**
+ * Lifecycle of an order, stored as the integer code in orders.status.
+ * Orders only move forward: PAID -> SHIPPING -> COMPLETED.
+ */
+public enum OrderStatus {
+    PAID(1),        // Đã thanh toán
+    SHIPPING(2),    // Đang giao
+    COMPLETED(3);   // Hoàn tất đơn hàng
+
+    private final int code;
+
+    OrderStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static OrderStatus fromCode(int code) {
+        for (OrderStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status: " + code);
+    }
+
+    public static boolean isKnown(int code) {
+        for (OrderStatus status : values()) {
+            if (status.code == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The only status an order may be in to move to this one, or null for the initial status.
+     */
+    public OrderStatus predecessor() {
+        return switch (this) {
+            case PAID -> null;
+            case SHIPPING -> PAID;
+            case COMPLETED -> SHIPPING;
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return target.predecessor() == this;
+    }
+}
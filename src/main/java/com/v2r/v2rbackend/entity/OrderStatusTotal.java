@@ -0,0 +1,50 @@
+package com.v2r.v2rbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running order count and revenue per order status, kept in step with orders by OrderTotalsService
+ * so totals are read from one row instead of aggregating the orders table.
+ */
+@Entity
+@Table(name = "order_status_totals")
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusTotal {
+
+    @Id
+    private int status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // Whole VND
+    @Column(name = "total_price", nullable = false)
+    private long totalPrice;
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(long totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+}
@@ -7,7 +7,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "otp_codes")
+@Table(name = "otp_codes", indexes = {
+        @Index(name = "ix_otp_codes_email_used", columnList = "email, used"),
+        @Index(name = "ix_otp_codes_expires_at", columnList = "expires_at"),
+        @Index(name = "ix_otp_codes_used", columnList = "used")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class OtpCode {
@@ -19,7 +19,7 @@ public class Payment {
     private int paymentID;
 
     private String transactionCode;
-    private double amount;
+    private Money amount;
 
     @OneToOne
     @JsonBackReference
@@ -49,11 +49,11 @@ public class Payment {
         this.transactionCode = transactionCode;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,109 @@
+package com.v2r.v2rbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Order count and revenue per order day, subscription plan and order status, kept in step with
+ * orders by RevenueRollupService so revenue reports read O(days x plans) rows instead of orders.
+ * An order with several lines for the same plan counts once for that plan.
+ */
+@Entity
+@Table(name = "revenue_rollup")
+@IdClass(RevenueRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueRollup {
+
+    // Calendar day of orders.order_date in the server time zone ("day" is reserved in H2)
+    @Id
+    @Column(name = "revenue_day")
+    private LocalDate revenueDay;
+
+    @Id
+    @Column(name = "subscription_id")
+    private int subscriptionId;
+
+    @Id
+    private int status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // Whole VND
+    @Column(nullable = false)
+    private long amount;
+
+    public LocalDate getRevenueDay() {
+        return revenueDay;
+    }
+
+    public void setRevenueDay(LocalDate revenueDay) {
+        this.revenueDay = revenueDay;
+    }
+
+    public int getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public void setSubscriptionId(int subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate revenueDay;
+        private int subscriptionId;
+        private int status;
+
+        public Key() {
+        }
+
+        public Key(LocalDate revenueDay, int subscriptionId, int status) {
+            this.revenueDay = revenueDay;
+            this.subscriptionId = subscriptionId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key that)) return false;
+            return subscriptionId == that.subscriptionId && status == that.status
+                    && Objects.equals(revenueDay, that.revenueDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(revenueDay, subscriptionId, status);
+        }
+    }
+}
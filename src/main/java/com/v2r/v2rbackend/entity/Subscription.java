@@ -19,8 +19,9 @@ public class Subscription {
     @Column(nullable = false)
     private boolean status;
 
-    @Column(nullable = false)
-    private String price;
+    // Whole VND; replaces the legacy string column "price" (backfilled by SchemaMigrations)
+    @Column(name = "price_vnd")
+    private Money price;
 
     @Column(name = "number_of_model", nullable = true)
     private Integer numberOfModel ; // -1 represents unlimited/infinity
@@ -49,11 +50,11 @@ public class Subscription {
         this.status = status;
     }
 
-    public String getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(String price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
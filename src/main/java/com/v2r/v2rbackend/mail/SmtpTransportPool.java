@@ -0,0 +1,236 @@
+package com.v2r.v2rbackend.mail;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps authenticated SMTP connections open and sends many messages per connection, instead of
+ * paying TCP + STARTTLS + AUTH for every email as JavaMailSender.send does.
+ *
+ * At most max-sessions connections exist at once (borrowers wait up to borrow-timeout-ms).
+ * Idle connections are reused most-recently-used first, checked with a NOOP before reuse when
+ * they have been idle for a while, closed after idle-timeout-ms and recycled after
+ * max-messages-per-session messages. A failure the server reported for this message (such as a
+ * rejected recipient) keeps the connection if it still answers a NOOP; any other failure
+ * discards it.
+ */
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Value("${app.mail.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.pool.max-sessions:2}")
+    private int maxSessions;
+
+    @Value("${app.mail.pool.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    @Value("${app.mail.pool.validate-after-idle-ms:5000}")
+    private long validateAfterIdleMs;
+
+    @Value("${app.mail.pool.max-messages-per-session:100}")
+    private int maxMessagesPerSession;
+
+    @Value("${app.mail.pool.borrow-timeout-ms:30000}")
+    private long borrowTimeoutMs;
+
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private Semaphore permits;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder failedHealthChecks = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxSessions, true);
+    }
+
+    /**
+     * Send one message over a pooled connection. Falls back to JavaMailSender.send when pooling is disabled.
+     */
+    public void send(SimpleMailMessage message) throws MailException {
+        if (!enabled) {
+            mailSender.send(message);
+            return;
+        }
+
+        MimeMessage mimeMessage = toMimeMessage(message);
+        acquirePermit();
+        PooledTransport pooled = null;
+        try {
+            pooled = borrow();
+            pooled.transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+            pooled.messages++;
+            messagesSent.increment();
+            giveBack(pooled);
+        } catch (AuthenticationFailedException e) {
+            close(pooled);
+            throw new MailAuthenticationException(e);
+        } catch (SendFailedException e) {
+            // The server refused this message (bad recipient, policy) but the session may be fine
+            if (pooled != null && pooled.transport.isConnected()) {
+                giveBack(pooled);
+            } else {
+                close(pooled);
+            }
+            throw new MailSendException("Failed to send email: " + e.getMessage(), e);
+        } catch (MessagingException e) {
+            close(pooled);
+            throw new MailSendException("Failed to send email: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            close(pooled);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        long now = System.currentTimeMillis();
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleFor = now - pooled.lastUsedAt;
+            if (idleFor > idleTimeoutMs) {
+                close(pooled);
+                continue;
+            }
+            // isConnected() issues a NOOP, so only pay for it when the connection sat idle
+            if (idleFor > validateAfterIdleMs && !pooled.transport.isConnected()) {
+                failedHealthChecks.increment();
+                close(pooled);
+                continue;
+            }
+            reused.increment();
+            return pooled;
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        created.increment();
+        return new PooledTransport(transport);
+    }
+
+    private void giveBack(PooledTransport pooled) {
+        if (pooled.messages >= maxMessagesPerSession) {
+            close(pooled);
+            return;
+        }
+        pooled.lastUsedAt = System.currentTimeMillis();
+        idle.offerFirst(pooled);
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("Timed out waiting for an SMTP session");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP session");
+        }
+    }
+
+    private MimeMessage toMimeMessage(SimpleMailMessage message) {
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            message.copyTo(new MimeMailMessage(mimeMessage));
+            mimeMessage.saveChanges();
+            return mimeMessage;
+        } catch (MessagingException e) {
+            throw new MailPreparationException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.pool.eviction-interval-ms:30000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Iterator<PooledTransport> it = idle.iterator(); it.hasNext(); ) {
+            PooledTransport pooled = it.next();
+            if (now - pooled.lastUsedAt > idleTimeoutMs && idle.removeFirstOccurrence(pooled)) {
+                close(pooled);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private void close(PooledTransport pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP transport: {}", e.getMessage());
+        }
+        closed.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxSessions", maxSessions);
+        stats.put("inUse", maxSessions - permits.availablePermits());
+        stats.put("idle", idle.size());
+        stats.put("created", created.sum());
+        stats.put("reused", reused.sum());
+        stats.put("closed", closed.sum());
+        stats.put("failedHealthChecks", failedHealthChecks.sum());
+        stats.put("messagesSent", messagesSent.sum());
+        return stats;
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private long lastUsedAt = System.currentTimeMillis();
+        private int messages;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
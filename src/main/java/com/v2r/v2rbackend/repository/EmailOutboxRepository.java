@@ -0,0 +1,29 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    long countByStatus(EmailOutbox.Status status);
+
+    // Sent rows still hold the message body (OTP codes included), so they are dropped after the retention period
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM email_outbox WHERE status = 'SENT' AND sent_at < :before", nativeQuery = true)
+    int deleteSentBatch(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+
+    // Dead rows have their body blanked already; they are kept a while for inspection, then dropped
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM email_outbox WHERE status = 'DEAD' AND created_at < :before", nativeQuery = true)
+    int deleteDeadBatch(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,62 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    // Fails on ux_idempotency_keys_scope_key when another attempt already holds the key
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, status, owner_token, locked_until, created_at, expires_at)" +
+            " VALUES (:scope, :key, :requestHash, 'IN_PROGRESS', :owner, :lockedUntil, :now, :expiresAt)", nativeQuery = true)
+    int claim(@Param("scope") String scope, @Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("owner") String owner, @Param("lockedUntil") LocalDateTime lockedUntil,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Take over an attempt whose owner stopped renewing its lease (node crash or timeout)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET owner_token = :owner, locked_until = :lockedUntil" +
+            " WHERE scope = :scope AND idempotency_key = :key AND status = 'IN_PROGRESS' AND locked_until < :now", nativeQuery = true)
+    int takeOver(@Param("scope") String scope, @Param("key") String key, @Param("owner") String owner,
+                 @Param("lockedUntil") LocalDateTime lockedUntil, @Param("now") LocalDateTime now);
+
+    // Runs inside the request's transaction, so the response is stored only if the request commits
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET status = 'COMPLETED', response_status = :responseStatus," +
+            " response_body = :responseBody, expires_at = :expiresAt" +
+            " WHERE scope = :scope AND idempotency_key = :key AND owner_token = :owner AND status = 'IN_PROGRESS'", nativeQuery = true)
+    int complete(@Param("scope") String scope, @Param("key") String key, @Param("owner") String owner,
+                 @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE scope = :scope AND idempotency_key = :key" +
+            " AND owner_token = :owner AND status = 'IN_PROGRESS'", nativeQuery = true)
+    int release(@Param("scope") String scope, @Param("key") String key, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE scope = :scope AND idempotency_key = :key AND expires_at < :now", nativeQuery = true)
+    int deleteIfExpired(@Param("scope") String scope, @Param("key") String key, @Param("now") LocalDateTime now);
+
+    // Bounded chunk stays below SQL Server's lock escalation threshold; each chunk commits on its own
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM idempotency_keys WHERE expires_at < :now", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
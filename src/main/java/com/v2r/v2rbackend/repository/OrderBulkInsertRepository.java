@@ -0,0 +1,128 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.config.DatabaseDialect;
+import com.v2r.v2rbackend.entity.Order;
+import com.v2r.v2rbackend.entity.OrderDetail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched inserts for order creation, single and bulk.
+ *
+ * The order ids are IDENTITY columns, which makes Hibernate send one INSERT per row. This writes
+ * a whole set of orders in a few statements instead and assigns the generated ids back to the
+ * (unmanaged) Order objects, then inserts all their lines as one JDBC batch.
+ */
+@Repository
+public class OrderBulkInsertRepository {
+
+    // 5 parameters per order keeps a statement well under SQL Server's 2100-parameter limit
+    private static final int ORDERS_PER_STATEMENT = 300;
+
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO order_details (order_id, subscription_id, quantity, price_per_unit, total_price) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbc;
+
+    @Value("${app.orders.bulk.insert-batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Insert the orders and their details. Sets each order's id.
+     *
+     * @return the new order ids, in input order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Integer> insert(List<Order> orders) {
+        List<Integer> ids = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += ORDERS_PER_STATEMENT) {
+            List<Order> chunk = orders.subList(from, Math.min(from + ORDERS_PER_STATEMENT, orders.size()));
+            ids.addAll(databaseDialect.isSqlServer() ? insertOrdersSqlServer(chunk) : insertOrdersPortable(chunk));
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setOrderID(ids.get(i));
+        }
+
+        List<OrderDetail> details = new ArrayList<>();
+        orders.forEach(order -> details.addAll(order.getOrderDetails()));
+        jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, details, batchSize, (ps, detail) -> {
+            ps.setInt(1, detail.getOrder().getOrderID());
+            ps.setInt(2, detail.getSubscription().getId());
+            ps.setInt(3, detail.getQuantity());
+            ps.setLong(4, detail.getPricePerUnit().getVnd());
+            ps.setLong(5, detail.getTotalPrice().getVnd());
+        });
+        return ids;
+    }
+
+    /**
+     * One MERGE per chunk. Unlike INSERT ... OUTPUT, MERGE can output the source row index next
+     * to the generated id, so ids map back to orders regardless of the order rows come back in.
+     */
+    private List<Integer> insertOrdersSqlServer(List<Order> chunk) {
+        StringBuilder sql = new StringBuilder("MERGE INTO orders USING (VALUES ");
+        List<Object> args = new ArrayList<>(chunk.size() * 5);
+        for (int i = 0; i < chunk.size(); i++) {
+            Order order = chunk.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+            args.add(i);
+            args.add(order.getUser().getUserID());
+            args.add(new Timestamp(order.getOrder_date().getTime()));
+            args.add(order.getTotalPrice().getVnd());
+            args.add(order.getStatus());
+        }
+        sql.append(") AS src (idx, user_id, order_date, total_price, status) ON 1 = 0")
+                .append(" WHEN NOT MATCHED THEN INSERT (user_id, order_date, total_price, status)")
+                .append(" VALUES (src.user_id, src.order_date, src.total_price, src.status)")
+                .append(" OUTPUT src.idx, inserted.orderid;");
+
+        Integer[] ids = new Integer[chunk.size()];
+        jdbcTemplate.query(sql.toString(), rs -> {
+            ids[rs.getInt(1)] = rs.getInt(2);
+        }, args.toArray());
+        return List.of(ids);
+    }
+
+    // Other databases (H2 in development): a JDBC batch that returns the generated keys
+    private List<Integer> insertOrdersPortable(List<Order> chunk) {
+        SqlParameterSource[] batch = new SqlParameterSource[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            Order order = chunk.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("userId", order.getUser().getUserID())
+                    .addValue("orderDate", new Timestamp(order.getOrder_date().getTime()))
+                    .addValue("totalPrice", order.getTotalPrice().getVnd())
+                    .addValue("status", order.getStatus());
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        namedJdbc.batchUpdate("INSERT INTO orders (user_id, order_date, total_price, status)"
+                + " VALUES (:userId, :orderDate, :totalPrice, :status)", batch, keys, new String[]{"orderid"});
+
+        List<Integer> ids = new ArrayList<>(chunk.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).intValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,102 @@
+package com.v2r.v2rbackend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams order and order line rows straight off a forward-only, read-only cursor. Rows are
+ * handed to the caller one at a time and never collected, so memory stays flat however many
+ * orders match.
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String SELECT =
+            "SELECT o.orderid, o.order_date, o.status, o.check_code, o.total_price AS order_total," +
+            " o.user_id, u.email, d.order_detail_id, d.subscription_id, s.name AS subscription_name," +
+            " d.quantity, d.price_per_unit, d.total_price AS line_total" +
+            " FROM orders o" +
+            " LEFT JOIN users u ON u.user_id = o.user_id" +
+            " LEFT JOIN order_details d ON d.order_id = o.orderid" +
+            " LEFT JOIN subscriptions s ON s.id = d.subscription_id";
+
+    @FunctionalInterface
+    public interface RowHandler {
+        // The result set is positioned on the current row; do not advance it
+        void handle(ResultSet rs) throws SQLException, IOException;
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Feed every line of the orders placed in [from, to) to the handler, ordered by order id and
+     * then line id, so the lines of one order are adjacent. Either bound may be null.
+     * An IOException from the handler (client went away) cancels the query and is rethrown
+     * wrapped in an UncheckedIOException.
+     *
+     * @return number of rows handled
+     */
+    public long stream(LocalDateTime from, LocalDateTime to, int fetchSize, RowHandler handler) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> params = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" o.order_date >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" o.order_date < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY o.orderid, d.order_detail_id");
+
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    long count = 0;
+                    try {
+                        while (rs.next()) {
+                            handler.handle(rs);
+                            count++;
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Closing a partly read SQL Server result set reads the rest of it first;
+                        // cancel so the server stops sending rows nobody will receive
+                        cancelQuietly(ps);
+                        if (e instanceof IOException io) {
+                            throw new UncheckedIOException(io);
+                        }
+                        throw (RuntimeException) e;
+                    }
+                    return count;
+                }
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static void cancelQuietly(PreparedStatement ps) {
+        try {
+            ps.cancel();
+        } catch (SQLException ignored) {
+            // The statement is closed right after; nothing else to do
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.v2r.v2rbackend.repository;
 
+import com.v2r.v2rbackend.dto.OrderDetailRow;
+import com.v2r.v2rbackend.dto.OrderSummaryRow;
 import com.v2r.v2rbackend.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Integer> {
@@ -15,9 +24,63 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByUser_UserID(Integer userId);
     Page<Order> findByUser_UserID(Integer userId, Pageable pageable);
     
+    // Row lock held until commit, so concurrent status changes of one order apply one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderID = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") int orderId);
+
+    // Served by the unique filtered index ux_orders_check_code (see SchemaMigrations). Two rows are
+    // read because the index is not created while legacy duplicates exist.
+    List<Order> findTop2ByCheckCodeOrderByOrderIDAsc(String checkCode);
+    boolean existsByCheckCode(String checkCode);
+    boolean existsByCheckCodeAndOrderIDNot(String checkCode, int orderID);
+
     // Find orders by status
     List<Order> findByStatus(int status);
     Page<Order> findByStatus(int status, Pageable pageable);
+
+    // Listing read path: order headers with the user's email, no entities are loaded
+    @Query(value = "SELECT new com.v2r.v2rbackend.dto.OrderSummaryRow(o.orderID, u.userID, u.email, o.order_date, "
+            + "o.totalPrice, o.checkCode, o.status) FROM Order o LEFT JOIN o.user u",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderSummaryRow> findOrderSummaries(Pageable pageable);
+
+    // Per-user history served by ix_orders_user_status_date (see SchemaMigrations): o.user.userID
+    // is the user_id column, so users is never joined and the index covers the header columns
+    @Query(value = "SELECT new com.v2r.v2rbackend.dto.OrderSummaryRow(o.orderID, o.user.userID, o.order_date, "
+            + "o.totalPrice, o.checkCode, o.status) FROM Order o WHERE o.user.userID = :userId "
+            + "ORDER BY o.order_date DESC, o.orderID DESC",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.userID = :userId")
+    Page<OrderSummaryRow> findUserOrderSummaries(@Param("userId") int userId, Pageable pageable);
+
+    @Query(value = "SELECT new com.v2r.v2rbackend.dto.OrderSummaryRow(o.orderID, o.user.userID, o.order_date, "
+            + "o.totalPrice, o.checkCode, o.status) FROM Order o WHERE o.user.userID = :userId AND o.status = :status "
+            + "ORDER BY o.order_date DESC, o.orderID DESC",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.userID = :userId AND o.status = :status")
+    Page<OrderSummaryRow> findUserOrderSummariesByStatus(@Param("userId") int userId, @Param("status") int status,
+                                                         Pageable pageable);
+
+    // Read-back of orders just written by OrderBulkInsertRepository
+    @Query("SELECT new com.v2r.v2rbackend.dto.OrderSummaryRow(o.orderID, u.userID, u.email, o.order_date, "
+            + "o.totalPrice, o.checkCode, o.status) FROM Order o LEFT JOIN o.user u "
+            + "WHERE o.orderID IN :orderIds ORDER BY o.orderID")
+    List<OrderSummaryRow> findOrderSummariesByIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Keyset page, newest first: seeks on the primary key instead of OFFSET, no COUNT
+    @Query("SELECT new com.v2r.v2rbackend.dto.OrderSummaryRow(o.orderID, u.userID, u.email, o.order_date, "
+            + "o.totalPrice, o.checkCode, o.status) FROM Order o LEFT JOIN o.user u "
+            + "WHERE o.orderID < :beforeId ORDER BY o.orderID DESC")
+    List<OrderSummaryRow> findOrderSummariesBefore(@Param("beforeId") int beforeId, Limit limit);
+
+    // Lines for a page of orders with their plan names, in one query
+    @Query("SELECT new com.v2r.v2rbackend.dto.OrderDetailRow(od.order.orderID, od.orderDetailId, s.id, s.name, "
+            + "od.quantity, od.pricePerUnit, od.totalPrice) FROM OrderDetail od LEFT JOIN od.subscription s "
+            + "WHERE od.order.orderID IN :orderIds ORDER BY od.orderDetailId")
+    List<OrderDetailRow> findDetailRowsByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Aggregated in the database; no Order entities (or their users, details, payments) are loaded
+    @Query(value = "SELECT COALESCE(SUM(total_price), 0) FROM orders WHERE status = :status", nativeQuery = true)
+    long sumTotalPriceByStatus(@Param("status") int status);
     
     // Find orders by user and status
     List<Order> findByUser_UserIDAndStatus(Integer userId, int status);
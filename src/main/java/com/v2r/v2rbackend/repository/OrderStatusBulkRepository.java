@@ -0,0 +1,109 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.config.DatabaseDialect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based status transitions for many orders at once. The UPDATE is guarded by the expected
+ * current status, so an order changed concurrently by someone else is simply not moved.
+ */
+@Repository
+public class OrderStatusBulkRepository {
+
+    private static final String TRANSITION_SQL_SERVER =
+            "UPDATE orders SET status = :to" +
+            " OUTPUT inserted.orderid, inserted.user_id, inserted.check_code, inserted.total_price" +
+            " WHERE orderid IN (:ids) AND status = :from";
+
+    private static final RowMapper<MovedOrder> MOVED_ORDER = (rs, rowNum) -> new MovedOrder(
+            rs.getInt("orderid"),
+            rs.getObject("user_id", Integer.class),
+            rs.getString("check_code"),
+            rs.getLong("total_price"));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+    /**
+     * Move every order in ids whose status is currently {@code from} to {@code to}.
+     *
+     * @return the orders that were moved
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<MovedOrder> transition(Collection<Integer> ids, int from, int to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("from", from)
+                .addValue("to", to);
+        if (databaseDialect.isSqlServer()) {
+            return jdbc.query(TRANSITION_SQL_SERVER, params, MOVED_ORDER);
+        }
+
+        // Databases without OUTPUT (H2 in development): lock the candidates, then update them
+        List<MovedOrder> moved = jdbc.query(
+                "SELECT orderid, user_id, check_code, total_price FROM orders" +
+                " WHERE orderid IN (:ids) AND status = :from FOR UPDATE", params, MOVED_ORDER);
+        if (!moved.isEmpty()) {
+            params.addValue("moved", moved.stream().map(MovedOrder::getOrderId).toList());
+            jdbc.update("UPDATE orders SET status = :to WHERE orderid IN (:moved) AND status = :from", params);
+        }
+        return moved;
+    }
+
+    public Map<Integer, Integer> findStatuses(Collection<Integer> ids) {
+        Map<Integer, Integer> statuses = new HashMap<>();
+        if (ids.isEmpty()) {
+            return statuses;
+        }
+        jdbc.query("SELECT orderid, status FROM orders WHERE orderid IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    statuses.put(rs.getInt("orderid"), rs.getInt("status"));
+                });
+        return statuses;
+    }
+
+    public static class MovedOrder {
+        private final int orderId;
+        private final Integer userId;
+        private final String checkCode;
+        private final long totalPrice;
+
+        MovedOrder(int orderId, Integer userId, String checkCode, long totalPrice) {
+            this.orderId = orderId;
+            this.userId = userId;
+            this.checkCode = checkCode;
+            this.totalPrice = totalPrice;
+        }
+
+        public int getOrderId() {
+            return orderId;
+        }
+
+        public Integer getUserId() {
+            return userId;
+        }
+
+        public String getCheckCode() {
+            return checkCode;
+        }
+
+        public long getTotalPrice() {
+            return totalPrice;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.entity.OrderStatusTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderStatusTotalRepository extends JpaRepository<OrderStatusTotal, Integer> {
+
+    @Modifying
+    @Query("UPDATE OrderStatusTotal t SET t.orderCount = t.orderCount + :countDelta, t.totalPrice = t.totalPrice + :priceDelta WHERE t.status = :status")
+    int addDelta(@Param("status") int status, @Param("countDelta") long countDelta, @Param("priceDelta") long priceDelta);
+
+    // UPDLOCK + HOLDLOCK range-lock the missing key, so a concurrent first write of the same
+    // status waits and then finds the row instead of failing the order with a PK violation
+    @Modifying
+    @Query(value = "INSERT INTO order_status_totals (status, order_count, total_price) " +
+            "SELECT :status, 0, 0 WHERE NOT EXISTS " +
+            "(SELECT 1 FROM order_status_totals WITH (UPDLOCK, HOLDLOCK) WHERE status = :status)", nativeQuery = true)
+    int insertIfMissing(@Param("status") int status);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_status_totals", nativeQuery = true)
+    int deleteAllRows();
+
+    // status, order count, revenue
+    @Query(value = "SELECT status, COUNT(*), COALESCE(SUM(total_price), 0) FROM orders GROUP BY status", nativeQuery = true)
+    List<Object[]> aggregateOrders();
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_totals (status, order_count, total_price) " +
+            "VALUES (:status, :orderCount, :totalPrice)", nativeQuery = true)
+    int insertTotal(@Param("status") int status, @Param("orderCount") long orderCount, @Param("totalPrice") long totalPrice);
+}
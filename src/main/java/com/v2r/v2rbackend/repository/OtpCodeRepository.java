@@ -2,15 +2,33 @@ package com.v2r.v2rbackend.repository;
 
 import com.v2r.v2rbackend.entity.OtpCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OtpCodeRepository extends JpaRepository<OtpCode, Integer> {
     Optional<OtpCode> findByEmailAndOtpCodeAndUsedFalse(String email, String otpCode);
-    List<OtpCode> findByEmailAndUsedFalse(String email);
-    void deleteByExpiresAtBefore(LocalDateTime dateTime);
+
+    // Set-based invalidation served by ix_otp_codes_email_used, instead of one save per row
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.used = true WHERE o.email = :email AND o.used = false")
+    int invalidateUnusedByEmail(@Param("email") String email);
+
+    // Bounded chunks stay below SQL Server's lock escalation threshold; each chunk commits on its own.
+    // One predicate per statement so each seeks its own index (an OR of the two scans the table).
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM otp_codes WHERE expires_at < :now", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM otp_codes WHERE used = 1", nativeQuery = true)
+    int deleteUsedBatch(@Param("batchSize") int batchSize);
 }
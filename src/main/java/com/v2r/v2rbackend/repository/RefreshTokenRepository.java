@@ -0,0 +1,47 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    // Load the token together with its user and role in one query
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user u LEFT JOIN FETCH u.role WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    // Claim the token for rotation; 0 rows means it was already used or revoked
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    // Ends every session of a disabled user instead of waiting for the next rotation
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.user.userID = :userId AND t.revoked = false")
+    int revokeAllForUser(@Param("userId") int userId);
+
+    // refresh_tokens.user_id references users without a cascade; run before deleting the user
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.user.userID = :userId")
+    int deleteByUserId(@Param("userId") int userId);
+
+    // Batched purge so a large backlog never takes a table lock; each batch commits on its own
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM refresh_tokens WHERE expires_at < :now", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
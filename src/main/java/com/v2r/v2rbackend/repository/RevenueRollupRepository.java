@@ -0,0 +1,171 @@
+package com.v2r.v2rbackend.repository;
+
+import com.v2r.v2rbackend.config.DatabaseDialect;
+import com.v2r.v2rbackend.dto.RevenueRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based access to revenue_rollup: delta upserts from the order write paths, range rebuilds
+ * from orders and the report reads.
+ */
+@Repository
+public class RevenueRollupRepository {
+
+    private static final String MERGE_BODY =
+            " USING (VALUES (?, ?, ?, ?, ?)) AS s (revenue_day, subscription_id, status, order_count, amount)" +
+            " ON t.revenue_day = s.revenue_day AND t.subscription_id = s.subscription_id AND t.status = s.status" +
+            " WHEN MATCHED THEN UPDATE SET order_count = t.order_count + s.order_count, amount = t.amount + s.amount" +
+            " WHEN NOT MATCHED THEN INSERT (revenue_day, subscription_id, status, order_count, amount)" +
+            " VALUES (s.revenue_day, s.subscription_id, s.status, s.order_count, s.amount)";
+
+    // HOLDLOCK keeps two writers from both taking the NOT MATCHED branch for a new row
+    private static final String MERGE_SQL_SERVER = "MERGE revenue_rollup WITH (HOLDLOCK) AS t" + MERGE_BODY + ";";
+    private static final String MERGE_SQL = "MERGE INTO revenue_rollup AS t" + MERGE_BODY;
+
+    // Every order with a line for the plan counts once per plan, whatever the number of lines
+    private static final String AGGREGATE_ORDERS =
+            " SELECT CAST(o.order_date AS DATE) AS revenue_day, d.subscription_id, o.status," +
+            " COUNT(DISTINCT o.orderid) AS order_count, SUM(d.total_price) AS amount" +
+            " FROM orders o JOIN order_details d ON d.order_id = o.orderid";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(Collection<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            args.add(new Object[]{Date.valueOf(delta.getDay()), delta.getSubscriptionId(), delta.getStatus(),
+                    delta.getOrderCount(), delta.getAmount()});
+        }
+        jdbc.getJdbcTemplate().batchUpdate(databaseDialect.isSqlServer() ? MERGE_SQL_SERVER : MERGE_SQL, args);
+    }
+
+    /**
+     * Per-day, per-plan share of the given orders, grouped by their current status.
+     */
+    public List<Delta> aggregateOrders(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbc.query(AGGREGATE_ORDERS + " WHERE o.orderid IN (:ids)" +
+                        " GROUP BY CAST(o.order_date AS DATE), d.subscription_id, o.status",
+                new MapSqlParameterSource("ids", orderIds),
+                (rs, rowNum) -> new Delta(rs.getDate("revenue_day").toLocalDate(), rs.getInt("subscription_id"),
+                        rs.getInt("status"), rs.getLong("order_count"), rs.getLong("amount")));
+    }
+
+    /**
+     * Replace the rollup rows of [from, toExclusive) with a fresh aggregate of orders.
+     *
+     * @return number of rollup rows written
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int rebuild(LocalDate from, LocalDate toExclusive) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromDay", Date.valueOf(from))
+                .addValue("toDay", Date.valueOf(toExclusive))
+                .addValue("fromTime", Timestamp.valueOf(from.atStartOfDay()))
+                .addValue("toTime", Timestamp.valueOf(toExclusive.atStartOfDay()));
+        jdbc.update("DELETE FROM revenue_rollup WHERE revenue_day >= :fromDay AND revenue_day < :toDay", params);
+        return jdbc.update("INSERT INTO revenue_rollup (revenue_day, subscription_id, status, order_count, amount)" +
+                AGGREGATE_ORDERS + " WHERE o.order_date >= :fromTime AND o.order_date < :toTime" +
+                " GROUP BY CAST(o.order_date AS DATE), d.subscription_id, o.status", params);
+    }
+
+    /**
+     * Revenue per day and plan over [from, to], summed over the given status or over all of them.
+     */
+    public List<RevenueRow> findDaily(LocalDate from, LocalDate to, Integer status) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromDay", Date.valueOf(from))
+                .addValue("toDay", Date.valueOf(to))
+                .addValue("status", status);
+        return jdbc.query("SELECT r.revenue_day, r.subscription_id, s.name," +
+                        " SUM(r.order_count) AS order_count, SUM(r.amount) AS amount" +
+                        " FROM revenue_rollup r LEFT JOIN subscriptions s ON s.id = r.subscription_id" +
+                        " WHERE r.revenue_day >= :fromDay AND r.revenue_day <= :toDay" +
+                        (status != null ? " AND r.status = :status" : "") +
+                        " GROUP BY r.revenue_day, r.subscription_id, s.name" +
+                        " HAVING SUM(r.order_count) > 0" +
+                        " ORDER BY r.revenue_day, r.subscription_id",
+                params,
+                (rs, rowNum) -> new RevenueRow(rs.getDate("revenue_day").toLocalDate().toString(),
+                        rs.getInt("subscription_id"), rs.getString("name"),
+                        rs.getLong("order_count"), rs.getLong("amount")));
+    }
+
+    public boolean isEmpty() {
+        Integer exists = jdbc.getJdbcTemplate().queryForObject(
+                "SELECT CASE WHEN EXISTS (SELECT 1 FROM revenue_rollup) THEN 1 ELSE 0 END", Integer.class);
+        return exists == null || exists == 0;
+    }
+
+    /**
+     * First and last order day, or null when there are no orders.
+     */
+    public LocalDate[] orderDayRange() {
+        return jdbc.getJdbcTemplate().query(
+                "SELECT MIN(CAST(order_date AS DATE)) AS first_day, MAX(CAST(order_date AS DATE)) AS last_day FROM orders",
+                rs -> {
+                    if (!rs.next() || rs.getDate("first_day") == null) {
+                        return null;
+                    }
+                    return new LocalDate[]{rs.getDate("first_day").toLocalDate(), rs.getDate("last_day").toLocalDate()};
+                });
+    }
+
+    public static class Delta {
+        private final LocalDate day;
+        private final int subscriptionId;
+        private final int status;
+        private final long orderCount;
+        private final long amount;
+
+        public Delta(LocalDate day, int subscriptionId, int status, long orderCount, long amount) {
+            this.day = day;
+            this.subscriptionId = subscriptionId;
+            this.status = status;
+            this.orderCount = orderCount;
+            this.amount = amount;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public int getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public long getOrderCount() {
+            return orderCount;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+    }
+}
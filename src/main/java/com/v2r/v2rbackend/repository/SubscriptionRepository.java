@@ -1,6 +1,7 @@
 package com.v2r.v2rbackend.repository;
 
 import com.v2r.v2rbackend.entity.Subscription;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,4 +16,7 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Inte
     List<Subscription> findByStatus(boolean status);
     Page<Subscription> findByStatus(boolean status, Pageable pageable);
     boolean existsByName(String name);
+
+    // Keyset page in id order
+    List<Subscription> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
 }
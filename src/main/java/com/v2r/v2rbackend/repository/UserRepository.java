@@ -1,12 +1,16 @@
 package com.v2r.v2rbackend.repository;
 
 import com.v2r.v2rbackend.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +20,10 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     List<User> findByStatus(boolean status);
+
+    // Seeds UserSecurityRegistry at startup without loading the entities
+    @Query("SELECT u.userID FROM User u WHERE u.status = false")
+    List<Integer> findDisabledUserIds();
     Page<User> findByStatus(boolean status, Pageable pageable);
     List<User> findByIsVerified(boolean isVerified);
     Page<User> findByIsVerified(boolean isVerified, Pageable pageable);
@@ -30,4 +38,15 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query(value = "SELECT u FROM User u",
            countQuery = "SELECT COUNT(u) FROM User u")
     Page<User> findAllWithRoles(Pageable pageable);
+
+    // Keyset page in id order, for /api/users/scroll
+    @EntityGraph(attributePaths = {"role"})
+    @Query("SELECT u FROM User u WHERE u.userID > :afterId ORDER BY u.userID")
+    List<User> findWithRolesAfter(@Param("afterId") int afterId, Limit limit);
+
+    // Used for rehash-on-login, touches only the password column
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
@@ -2,6 +2,7 @@ package com.v2r.v2rbackend.repository;
 
 import com.v2r.v2rbackend.entity.User;
 import com.v2r.v2rbackend.entity.UserSubscription;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -36,6 +37,9 @@ public interface UserSubscriptionRepository extends JpaRepository<UserSubscripti
     List<UserSubscription> findBySubscriptionId(Integer subscriptionId);
     Page<UserSubscription> findBySubscriptionId(Integer subscriptionId, Pageable pageable);
     
+    // Keyset page in id order
+    List<UserSubscription> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
+
     // Find expired subscriptions
     List<UserSubscription> findByActiveAndEndDateBefore(boolean active, LocalDateTime currentDate);
 }
@@ -0,0 +1,334 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.config.DatabaseDialect;
+import com.v2r.v2rbackend.entity.EmailOutbox;
+import com.v2r.v2rbackend.mail.SmtpTransportPool;
+import com.v2r.v2rbackend.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers rows from email_outbox on a small pool of background threads.
+ *
+ * Each dispatcher claims a batch with a single UPDATE ... OUTPUT using UPDLOCK/READPAST, so
+ * dispatchers on this and other nodes skip each other's rows instead of blocking. A claim is a
+ * lease: if a node dies mid-send, the row becomes claimable again once locked_until passes.
+ * Every later update of a claimed row matches on the lease it was claimed with, so a dispatcher
+ * whose send outlived its lease cannot overwrite the row once someone else has taken it over.
+ * Failures are retried with exponential backoff and jitter; permanent failures and rows that
+ * run out of attempts are moved to DEAD with their body blanked, since it holds the OTP.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final String CLAIM_SQL_SERVER =
+            "WITH batch AS (" +
+            " SELECT TOP (?) * FROM email_outbox WITH (UPDLOCK, READPAST, ROWLOCK)" +
+            " WHERE (status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'SENDING' AND locked_until < ?)" +
+            " ORDER BY next_attempt_at)" +
+            " UPDATE batch SET status = 'SENDING', locked_until = ?, attempts = attempts + 1" +
+            " OUTPUT inserted.id, inserted.recipient, inserted.subject, inserted.body, inserted.attempts, inserted.locked_until";
+
+    // Only the dispatcher holding the lease it claimed may move the row out of SENDING
+    private static final String WHERE_LEASED = " WHERE id = ? AND status = 'SENDING' AND locked_until = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+    @Autowired
+    private SmtpTransportPool smtpTransportPool;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.dispatchers:2}")
+    private int dispatcherCount;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.mail.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff.initial-ms:5000}")
+    private long backoffInitialMs;
+
+    @Value("${app.mail.outbox.backoff.max-ms:1800000}")
+    private long backoffMaxMs;
+
+    @Value("${app.mail.outbox.sent-retention-ms:86400000}")
+    private long sentRetentionMs;
+
+    @Value("${app.mail.outbox.dead-retention-ms:604800000}")
+    private long deadRetentionMs;
+
+    private ExecutorService dispatchers;
+    private volatile boolean running;
+
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder leaseLost = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+
+    // Started once the schema is in place
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        dispatchers = Executors.newFixedThreadPool(dispatcherCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < dispatcherCount; i++) {
+            dispatchers.submit(this::dispatchLoop);
+        }
+        logger.info("Email outbox started with {} dispatchers", dispatcherCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatchers != null) {
+            dispatchers.shutdownNow();
+            dispatchers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<EmailOutbox> batch = claimBatch();
+                for (EmailOutbox email : batch) {
+                    deliver(email);
+                }
+                // Keep draining while there is a backlog, otherwise poll
+                if (batch.size() < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Email outbox dispatch failed", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+        // Whole millis so the lease compares equal after a round trip through any datetime column
+        Timestamp leaseTs = Timestamp.valueOf(now.plus(Duration.ofMillis(leaseMs)).truncatedTo(ChronoUnit.MILLIS));
+
+        List<EmailOutbox> batch = databaseDialect.isSqlServer()
+                ? jdbcTemplate.query(CLAIM_SQL_SERVER, CLAIMED_ROW, batchSize, nowTs, nowTs, leaseTs)
+                : claimPortable(nowTs, leaseTs);
+        claimed.add(batch.size());
+        return batch;
+    }
+
+    // Databases without READPAST (H2 in development): select candidates, then claim each with a guarded UPDATE
+    private List<EmailOutbox> claimPortable(Timestamp nowTs, Timestamp leaseTs) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM email_outbox WHERE (status = 'PENDING' AND next_attempt_at <= ?)" +
+                " OR (status = 'SENDING' AND locked_until < ?) ORDER BY next_attempt_at FETCH FIRST " + batchSize + " ROWS ONLY",
+                Long.class, nowTs, nowTs);
+        List<EmailOutbox> batch = new ArrayList<>();
+        for (Long id : ids) {
+            int updated = jdbcTemplate.update(
+                    "UPDATE email_outbox SET status = 'SENDING', locked_until = ?, attempts = attempts + 1" +
+                    " WHERE id = ? AND ((status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'SENDING' AND locked_until < ?))",
+                    leaseTs, id, nowTs, nowTs);
+            if (updated == 1) {
+                batch.addAll(jdbcTemplate.query(
+                        "SELECT id, recipient, subject, body, attempts, locked_until FROM email_outbox WHERE id = ?", CLAIMED_ROW, id));
+            }
+        }
+        return batch;
+    }
+
+    private void deliver(EmailOutbox email) {
+        long start = System.nanoTime();
+        try {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getBody());
+            // Reuses an open, authenticated SMTP session when one is available
+            smtpTransportPool.send(message);
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE email_outbox SET status = 'SENT', sent_at = ?, locked_until = NULL, last_error = NULL" + WHERE_LEASED,
+                    Timestamp.valueOf(LocalDateTime.now()), email.getId(), Timestamp.valueOf(email.getLockedUntil()));
+            sent.increment();
+            if (updated == 0) {
+                onLeaseLost(email, "sent");
+            }
+        } catch (Exception e) {
+            handleFailure(email, e);
+        } finally {
+            sendNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void handleFailure(EmailOutbox email, Exception e) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        Timestamp lease = Timestamp.valueOf(email.getLockedUntil());
+        if (isPermanent(e) || email.getAttempts() >= maxAttempts) {
+            // The body holds the OTP; keep recipient, subject and error for inspection only
+            int updated = jdbcTemplate.update(
+                    "UPDATE email_outbox SET status = 'DEAD', body = '', locked_until = NULL, last_error = ?" + WHERE_LEASED,
+                    error, email.getId(), lease);
+            if (updated == 0) {
+                onLeaseLost(email, "dead");
+                return;
+            }
+            dead.increment();
+            logger.error("Email {} to {} moved to dead letter after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error);
+            return;
+        }
+
+        long delay = backoffMillis(email.getAttempts());
+        int updated = jdbcTemplate.update(
+                "UPDATE email_outbox SET status = 'PENDING', next_attempt_at = ?, locked_until = NULL, last_error = ?" + WHERE_LEASED,
+                Timestamp.valueOf(LocalDateTime.now().plus(Duration.ofMillis(delay))), error, email.getId(), lease);
+        if (updated == 0) {
+            onLeaseLost(email, "retry");
+            return;
+        }
+        retried.increment();
+        logger.warn("Email {} attempt {} failed, retrying in {} ms: {}", email.getId(), email.getAttempts(), delay, error);
+    }
+
+    // The send outlived the lease and another dispatcher took the row over; its state wins
+    private void onLeaseLost(EmailOutbox email, String outcome) {
+        leaseLost.increment();
+        logger.warn("Email {} lease expired before its {} update, row left to its new owner", email.getId(), outcome);
+    }
+
+    // initial * 2^(attempt-1), capped, with +/-20% jitter so failed batches do not retry in lockstep
+    private long backoffMillis(int attempt) {
+        long base = backoffInitialMs << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, backoffMaxMs);
+        long jitter = (long) (capped * 0.2 * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+        return Math.max(backoffInitialMs, capped + jitter);
+    }
+
+    // Malformed messages and rejected credentials will not succeed on retry
+    private static boolean isPermanent(Exception e) {
+        return e instanceof MailParseException
+                || e instanceof MailPreparationException
+                || e instanceof MailAuthenticationException;
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= 1000 ? value : value.substring(0, 1000);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval-ms:3600000}", initialDelayString = "${app.mail.outbox.purge-initial-delay-ms:300000}")
+    public void purgeFinished() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime sentBefore = now.minus(Duration.ofMillis(sentRetentionMs));
+            LocalDateTime deadBefore = now.minus(Duration.ofMillis(deadRetentionMs));
+            int sentTotal = 0;
+            int deleted;
+            do {
+                deleted = emailOutboxRepository.deleteSentBatch(sentBefore, 1000);
+                sentTotal += deleted;
+            } while (deleted == 1000);
+            int deadTotal = 0;
+            do {
+                deleted = emailOutboxRepository.deleteDeadBatch(deadBefore, 1000);
+                deadTotal += deleted;
+            } while (deleted == 1000);
+            if (sentTotal > 0 || deadTotal > 0) {
+                logger.info("Purged {} sent and {} dead email_outbox rows", sentTotal, deadTotal);
+            }
+        } catch (Exception e) {
+            logger.error("email_outbox purge failed", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long sentCount = sent.sum();
+        long attemptsCount = sentCount + retried.sum() + dead.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dispatchers", dispatcherCount);
+        stats.put("pending", emailOutboxRepository.countByStatus(EmailOutbox.Status.PENDING));
+        stats.put("sending", emailOutboxRepository.countByStatus(EmailOutbox.Status.SENDING));
+        stats.put("deadTotal", emailOutboxRepository.countByStatus(EmailOutbox.Status.DEAD));
+        stats.put("claimed", claimed.sum());
+        stats.put("sent", sentCount);
+        stats.put("retried", retried.sum());
+        stats.put("dead", dead.sum());
+        stats.put("leaseLost", leaseLost.sum());
+        stats.put("avgSendMs", attemptsCount == 0 ? 0.0 : sendNanos.sum() / 1_000_000.0 / attemptsCount);
+        return stats;
+    }
+
+    private static final RowMapper<EmailOutbox> CLAIMED_ROW = (rs, rowNum) -> {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(rs.getLong("id"));
+        email.setRecipient(rs.getString("recipient"));
+        email.setSubject(rs.getString("subject"));
+        email.setBody(rs.getString("body"));
+        email.setAttempts(rs.getInt("attempts"));
+        email.setLockedUntil(rs.getTimestamp("locked_until").toLocalDateTime());
+        email.setStatus(EmailOutbox.Status.SENDING);
+        return email;
+    };
+}
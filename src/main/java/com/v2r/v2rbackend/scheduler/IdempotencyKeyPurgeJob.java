@@ -0,0 +1,57 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.repository.IdempotencyKeyRepository;
+import com.v2r.v2rbackend.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired idempotency keys in bounded chunks, one transaction per chunk, and sweeps the
+ * local response cache of IdempotencyService.
+ */
+@Component
+public class IdempotencyKeyPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyPurgeJob.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${app.idempotency.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.idempotency.purge.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge.interval-ms:600000}", initialDelayString = "${app.idempotency.purge.initial-delay-ms:60000}")
+    public void purgeExpiredKeys() {
+        try {
+            idempotencyService.purgeLocal();
+
+            LocalDateTime now = LocalDateTime.now();
+            long total = 0;
+            int deleted;
+            int chunk = 0;
+            do {
+                deleted = idempotencyKeyRepository.deleteExpiredBatch(now, batchSize);
+                total += deleted;
+                chunk++;
+            } while (deleted == batchSize && chunk < maxChunksPerRun);
+
+            if (total > 0) {
+                logger.info("Purged {} expired idempotency keys in {} chunks", total, chunk);
+            }
+        } catch (Exception e) {
+            logger.error("idempotency_keys purge failed", e);
+        }
+    }
+}
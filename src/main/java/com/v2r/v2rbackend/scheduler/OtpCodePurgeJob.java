@@ -0,0 +1,97 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.repository.OtpCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes expired and used rows from otp_codes in bounded chunks. Each chunk is its own
+ * transaction so SQL Server keeps row locks instead of escalating to a table lock.
+ */
+@Component
+public class OtpCodePurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtpCodePurgeJob.class);
+
+    @Autowired
+    private OtpCodeRepository otpCodeRepository;
+
+    @Value("${app.otp.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.otp.purge.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder rowsDeleted = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder chunkNanos = new LongAdder();
+    private final AtomicLong maxChunkNanos = new AtomicLong();
+    private volatile long lastRunRows;
+    private volatile long lastRunMillis;
+
+    @Scheduled(fixedDelayString = "${app.otp.purge.table-interval-ms:600000}", initialDelayString = "${app.otp.purge.initial-delay-ms:60000}")
+    public void purgeOtpCodes() {
+        try {
+            long runStart = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            // Expired rows first (ix_otp_codes_expires_at), then used ones (ix_otp_codes_used),
+            // both out of the same chunk budget
+            int[] chunk = {0};
+            long total = purge(() -> otpCodeRepository.deleteExpiredBatch(now, batchSize), chunk)
+                    + purge(() -> otpCodeRepository.deleteUsedBatch(batchSize), chunk);
+
+            runs.increment();
+            rowsDeleted.add(total);
+            lastRunRows = total;
+            lastRunMillis = (System.nanoTime() - runStart) / 1_000_000;
+            if (total > 0) {
+                logger.info("Purged {} otp_codes rows in {} chunks ({} ms)", total, chunk[0], lastRunMillis);
+            }
+        } catch (Exception e) {
+            logger.error("otp_codes purge failed", e);
+        }
+    }
+
+    private long purge(IntSupplier deleteChunk, int[] chunk) {
+        long total = 0;
+        int deleted = batchSize;
+        while (deleted == batchSize && chunk[0] < maxChunksPerRun) {
+            long start = System.nanoTime();
+            deleted = deleteChunk.getAsInt();
+            long elapsed = System.nanoTime() - start;
+
+            chunks.increment();
+            chunkNanos.add(elapsed);
+            maxChunkNanos.accumulateAndGet(elapsed, Math::max);
+            total += deleted;
+            chunk[0]++;
+        }
+        return total;
+    }
+
+    public Map<String, Object> stats() {
+        long chunkCount = chunks.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batchSize", batchSize);
+        stats.put("runs", runs.sum());
+        stats.put("rowsDeleted", rowsDeleted.sum());
+        stats.put("chunks", chunkCount);
+        stats.put("avgChunkMs", chunkCount == 0 ? 0.0 : chunkNanos.sum() / 1_000_000.0 / chunkCount);
+        stats.put("maxChunkMs", maxChunkNanos.get() / 1_000_000.0);
+        stats.put("lastRunRows", lastRunRows);
+        stats.put("lastRunMs", lastRunMillis);
+        return stats;
+    }
+}
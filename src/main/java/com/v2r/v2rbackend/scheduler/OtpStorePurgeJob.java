@@ -0,0 +1,29 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.service.OtpStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OtpStorePurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtpStorePurgeJob.class);
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Scheduled(fixedDelayString = "${app.otp.purge.interval-ms:60000}", initialDelayString = "${app.otp.purge.initial-delay-ms:60000}")
+    public void purgeExpiredCodes() {
+        try {
+            int removed = otpStore.purgeExpired();
+            if (removed > 0) {
+                logger.debug("Purged {} expired OTP codes", removed);
+            }
+        } catch (Exception e) {
+            logger.error("OTP purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RefreshTokenPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge.interval-ms:3600000}", initialDelayString = "${jwt.refresh-purge.initial-delay-ms:60000}")
+    public void purgeExpiredTokens() {
+        try {
+            int deleted = refreshTokenService.purgeExpired();
+            if (deleted > 0) {
+                logger.info("Purged {} expired refresh tokens", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Refresh token purge failed", e);
+        }
+    }
+}
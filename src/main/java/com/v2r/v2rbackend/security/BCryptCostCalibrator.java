@@ -0,0 +1,109 @@
+package com.v2r.v2rbackend.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the BCrypt cost at startup by timing hashes on the current machine.
+ *
+ * Each cost from min-cost upward is benchmarked; the strongest cost whose hash time fits the
+ * latency budget wins. The measurements double as a capacity report (hashes/sec per thread and
+ * per node) so login throughput can be sized per deployment.
+ */
+@Component
+public class BCryptCostCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+
+    @Value("${app.security.bcrypt.target-latency-ms:150}")
+    private long targetLatencyMs;
+
+    @Value("${app.security.bcrypt.min-cost:10}")
+    private int minCost;
+
+    @Value("${app.security.bcrypt.max-cost:14}")
+    private int maxCost;
+
+    // Non-zero skips calibration and uses this cost as-is
+    @Value("${app.security.bcrypt.fixed-cost:0}")
+    private int fixedCost;
+
+    @Value("${app.security.bcrypt.samples:2}")
+    private int samples;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    private int cost;
+    private final List<Map<String, Object>> benchmark = new ArrayList<>();
+
+    @PostConstruct
+    void calibrate() {
+        if (fixedCost > 0) {
+            cost = fixedCost;
+            logger.info("BCrypt cost fixed at {} (calibration skipped)", cost);
+            return;
+        }
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        // Warm up the JIT so the first measured cost is not penalised
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        cost = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            double millis = measure(candidate);
+            double perThread = 1000.0 / millis;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("cost", candidate);
+            row.put("millisPerHash", millis);
+            row.put("hashesPerSecondPerThread", perThread);
+            row.put("hashesPerSecondPerNode", perThread * threads);
+            benchmark.add(row);
+            logger.info("BCrypt cost {}: {} ms/hash, ~{} hashes/s on {} threads",
+                    candidate, String.format("%.1f", millis), String.format("%.1f", perThread * threads), threads);
+
+            if (millis > targetLatencyMs) {
+                // Each cost step doubles the work, no later cost can fit the budget
+                break;
+            }
+            cost = candidate;
+        }
+        logger.info("BCrypt cost calibrated to {} for a {} ms budget", cost, targetLatencyMs);
+    }
+
+    private double measure(int candidate) {
+        String salt = BCrypt.gensalt(candidate);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < Math.max(1, samples); i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("selectedCost", cost);
+        report.put("targetLatencyMs", targetLatencyMs);
+        report.put("benchmark", Collections.unmodifiableList(benchmark));
+        return report;
+    }
+}
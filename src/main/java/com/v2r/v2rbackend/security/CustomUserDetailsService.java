@@ -2,36 +2,85 @@ package com.v2r.v2rbackend.security;
 
 import com.v2r.v2rbackend.entity.User;
 import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${app.security.user-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${app.security.user-cache.ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    private ExpiringCache<String, UserPrincipal> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new ExpiringCache<>(cacheMaxSize, cacheTtlMs);
+    }
+
+    @Override
+    public UserPrincipal loadUserByUsername(String email) throws UsernameNotFoundException {
+        String key = cacheKey(email);
+        UserPrincipal cached = cache.get(key);
+        if (cached == null) {
+            cached = loadPrincipal(email);
+            cache.put(key, cached);
+        }
+        // Hand out a copy: ProviderManager erases credentials on the principal after login
+        return cached.withPassword(cached.getPassword());
+    }
+
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the stored hash uses
+     * a different BCrypt cost than the calibrated one.
+     */
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        evict(user.getUsername());
+        if (user instanceof UserPrincipal principal) {
+            return principal.withPassword(newPassword);
+        }
+        return loadUserByUsername(user.getUsername());
+    }
+
+    /**
+     * Drop the cached entry for a user. Must be called whenever the user row changes.
+     */
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(cacheKey(email));
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return cache.stats();
+    }
+
+    private UserPrincipal loadPrincipal(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return UserPrincipal.from(user);
+    }
 
-        String roleName = user.getRole() != null ? user.getRole().getRoleName() : "USER";
-
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + roleName)))
-                .accountExpired(false)
-                .accountLocked(!user.isStatus())
-                .credentialsExpired(false)
-                .disabled(!user.isStatus())
-                .build();
+    // SQL Server compares emails case-insensitively, so the cache does too
+    private static String cacheKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 }
@@ -5,10 +5,14 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,34 +28,80 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserSecurityRegistry userSecurityRegistry;
+
+    // "database" reloads the user on every request, "claims" trusts the verified token claims
+    @Value("${jwt.auth-mode:database}")
+    private String authMode;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Signature is checked once here; everything below reads the verified claims
+                token = jwtUtil.verify(jwt);
             } catch (Exception e) {
                 logger.error("JWT Token parsing error: " + e.getMessage());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (token != null && token.getSubject() != null && isUnauthenticated(SecurityContextHolder.getContext().getAuthentication())) {
+            UsernamePasswordAuthenticationToken authenticationToken = "claims".equalsIgnoreCase(authMode)
+                    ? authenticateFromClaims(token)
+                    : authenticateFromDatabase(token);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            if (authenticationToken != null) {
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(VerifiedToken token) {
+        UserDetails userDetails;
+        try {
+            userDetails = this.userDetailsService.loadUserByUsername(token.getSubject());
+        } catch (UsernameNotFoundException e) {
+            // User deleted or email changed since the token was issued; carry on unauthenticated
+            return null;
+        }
+        // validateToken only checks subject and expiry, so a disabled account is refused here
+        if (!userDetails.isEnabled() || !jwtUtil.validateToken(token, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Build the authentication straight from the verified claims written by AuthController.login,
+     * without a database lookup. Disabled or deleted users are rejected through UserSecurityRegistry.
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(VerifiedToken token) {
+        Integer userId = token.getClaim("userId", Integer.class);
+        String role = token.getClaim("role", String.class);
+        if (userId == null || role == null || token.isExpired()) {
+            return null;
+        }
+        if (!userSecurityRegistry.isTokenAllowed(userId, token.getIssuedAt())) {
+            return null;
+        }
+
+        // Tokens are only issued to verified, active users; the registry covers later status changes
+        UserPrincipal principal = new UserPrincipal(userId, token.getSubject(), "", role, true, true);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    // This filter runs as a plain servlet filter after Spring Security has put an anonymous token in place
+    private static boolean isUnauthenticated(Authentication authentication) {
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
 }
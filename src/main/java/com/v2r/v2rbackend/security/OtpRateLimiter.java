@@ -0,0 +1,175 @@
+package com.v2r.v2rbackend.security;
+
+import com.v2r.v2rbackend.util.SlidingWindowRateLimiter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttles OTP verification and resend per email and per client IP. Checks run before any
+ * repository query or SMTP send, so guessing codes or spamming resends costs neither database
+ * capacity nor mail quota. A request is only counted when every limit lets it through, so
+ * rejected requests do not use up quota. Limits are per node.
+ */
+@Component
+public class OtpRateLimiter {
+
+    private static final int BUCKETS = 10;
+
+    @Value("${app.otp.limits.verify.per-email:5}")
+    private int verifyPerEmail;
+
+    @Value("${app.otp.limits.verify.per-ip:30}")
+    private int verifyPerIp;
+
+    @Value("${app.otp.limits.verify.window-ms:900000}")
+    private long verifyWindowMs;
+
+    @Value("${app.otp.limits.resend.cooldown-ms:60000}")
+    private long resendCooldownMs;
+
+    @Value("${app.otp.limits.resend.per-email:5}")
+    private int resendPerEmail;
+
+    @Value("${app.otp.limits.resend.per-ip:20}")
+    private int resendPerIp;
+
+    @Value("${app.otp.limits.resend.window-ms:3600000}")
+    private long resendWindowMs;
+
+    private SlidingWindowRateLimiter verifyByEmail;
+    private SlidingWindowRateLimiter verifyByIp;
+    private SlidingWindowRateLimiter resendByEmail;
+    private SlidingWindowRateLimiter resendByIp;
+
+    // email -> time of the last OTP send; a cooldown runs from that moment, not from a window slot
+    private final ConcurrentHashMap<String, Long> lastResend = new ConcurrentHashMap<>();
+    private final LongAdder cooldownAllowed = new LongAdder();
+    private final LongAdder cooldownRejected = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        verifyByEmail = new SlidingWindowRateLimiter(verifyPerEmail, verifyWindowMs, BUCKETS);
+        verifyByIp = new SlidingWindowRateLimiter(verifyPerIp, verifyWindowMs, BUCKETS);
+        resendByEmail = new SlidingWindowRateLimiter(resendPerEmail, resendWindowMs, BUCKETS);
+        resendByIp = new SlidingWindowRateLimiter(resendPerIp, resendWindowMs, BUCKETS);
+    }
+
+    /**
+     * Count a verification attempt. Once an email uses up its attempts it is locked out
+     * until the oldest attempt leaves the window.
+     *
+     * @throws RateLimitExceededException when the email or IP is over its limit
+     */
+    public void checkVerify(String email, String clientIp) {
+        String ip = clientIp == null ? "" : clientIp;
+        acquire(verifyByIp, ip, "Too many verification attempts from this address");
+        try {
+            acquire(verifyByEmail, normalize(email), "Too many verification attempts, account temporarily locked");
+        } catch (RateLimitExceededException e) {
+            verifyByIp.release(ip);
+            throw e;
+        }
+    }
+
+    /**
+     * Count an OTP send (registration or resend).
+     *
+     * @throws RateLimitExceededException when still in the cooldown or over the hourly limits
+     */
+    public void checkResend(String email, String clientIp) {
+        String key = normalize(email);
+        String ip = clientIp == null ? "" : clientIp;
+        long now = System.currentTimeMillis();
+        Long previous = startCooldown(key, now);
+        try {
+            acquire(resendByIp, ip, "Too many OTP requests from this address");
+        } catch (RateLimitExceededException e) {
+            endCooldown(key, now, previous);
+            throw e;
+        }
+        try {
+            acquire(resendByEmail, key, "Too many OTP requests for this email");
+        } catch (RateLimitExceededException e) {
+            resendByIp.release(ip);
+            endCooldown(key, now, previous);
+            throw e;
+        }
+    }
+
+    // Claim the cooldown for this send; returns the previous send time so a rejection can restore it
+    private Long startCooldown(String key, long now) {
+        while (true) {
+            Long last = lastResend.get(key);
+            if (last != null && now - last < resendCooldownMs) {
+                cooldownRejected.increment();
+                throw new RateLimitExceededException("Please wait before requesting another OTP",
+                        (resendCooldownMs - (now - last) + 999) / 1000);
+            }
+            boolean claimed = last == null
+                    ? lastResend.putIfAbsent(key, now) == null
+                    : lastResend.replace(key, last, now);
+            if (claimed) {
+                cooldownAllowed.increment();
+                return last;
+            }
+        }
+    }
+
+    private void endCooldown(String key, long claimedAt, Long previous) {
+        cooldownAllowed.decrement();
+        if (previous == null) {
+            lastResend.remove(key, claimedAt);
+        } else {
+            lastResend.replace(key, claimedAt, previous);
+        }
+    }
+
+    // Verification succeeded, so the attempts so far should not count against a later code
+    public void onVerified(String email) {
+        verifyByEmail.reset(normalize(email));
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.limits.sweep-interval-ms:60000}")
+    public void purgeIdle() {
+        verifyByEmail.purgeIdle();
+        verifyByIp.purgeIdle();
+        long cutoff = System.currentTimeMillis() - resendCooldownMs;
+        lastResend.values().removeIf(last -> last <= cutoff);
+        resendByEmail.purgeIdle();
+        resendByIp.purgeIdle();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("verifyByEmail", verifyByEmail.stats());
+        stats.put("verifyByIp", verifyByIp.stats());
+        Map<String, Object> cooldown = new LinkedHashMap<>();
+        cooldown.put("cooldownMs", resendCooldownMs);
+        cooldown.put("keys", lastResend.size());
+        cooldown.put("allowed", cooldownAllowed.sum());
+        cooldown.put("rejected", cooldownRejected.sum());
+        stats.put("resendCooldown", cooldown);
+        stats.put("resendByEmail", resendByEmail.stats());
+        stats.put("resendByIp", resendByIp.stats());
+        return stats;
+    }
+
+    private static void acquire(SlidingWindowRateLimiter limiter, String key, String message) {
+        long retryAfterMillis = limiter.tryAcquire(key);
+        if (retryAfterMillis > 0) {
+            throw new RateLimitExceededException(message, (retryAfterMillis + 999) / 1000);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
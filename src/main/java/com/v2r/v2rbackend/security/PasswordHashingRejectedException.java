@@ -0,0 +1,19 @@
+package com.v2r.v2rbackend.security;
+
+/**
+ * Thrown when the password hashing executor is saturated and a hash request is turned away.
+ * Controllers translate it into 503 Service Unavailable with a Retry-After header.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.v2r.v2rbackend.security;
+
+/**
+ * Thrown when a caller exceeds an in-memory request limit.
+ * Controllers translate it into 429 Too Many Requests with a Retry-After header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
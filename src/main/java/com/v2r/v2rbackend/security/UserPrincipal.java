@@ -0,0 +1,127 @@
+package com.v2r.v2rbackend.security;
+
+import com.v2r.v2rbackend.entity.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Authenticated user as seen by Spring Security. Carries the id, role, verified flag and status
+ * so login, the JWT filter and controllers never have to load the user row a second time.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final int userId;
+    private final String email;
+    private String password;
+    private final String roleName;
+    private final boolean verified;
+    private final boolean status;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(int userId, String email, String password, String roleName, boolean verified, boolean status) {
+        this.userId = userId;
+        this.email = email;
+        this.password = password;
+        this.roleName = roleName != null ? roleName : "USER";
+        this.verified = verified;
+        this.status = status;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + this.roleName));
+    }
+
+    public static UserPrincipal from(User user) {
+        String roleName = user.getRole() != null ? user.getRole().getRoleName() : null;
+        return new UserPrincipal(user.getUserID(), user.getEmail(), user.getPassword(), roleName,
+                user.isVerified(), user.isStatus());
+    }
+
+    /**
+     * Copy with a different password hash; pass the current one for a plain copy.
+     */
+    public UserPrincipal withPassword(String newPassword) {
+        return new UserPrincipal(userId, email, newPassword, roleName, verified, status);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public boolean isStatus() {
+        return status;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return status;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return status;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserPrincipal that)) return false;
+        return userId == that.userId && Objects.equals(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, email);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{userId=" + userId + ", email='" + email + "', role='" + roleName + "'}";
+    }
+}
@@ -0,0 +1,81 @@
+package com.v2r.v2rbackend.security;
+
+import com.v2r.v2rbackend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory record of users whose tokens must no longer be accepted.
+ *
+ * Used by the claims-only authentication mode, which never loads the user from the database:
+ * disabling or deleting a user bumps their "tokens valid after" mark so every token issued
+ * before that moment is rejected on this node.
+ *
+ * Users already disabled in the database are loaded at startup. Changes made later are only seen
+ * by the node that made them, so claims mode is for a single instance; with several nodes use
+ * database mode. A user deleted before the last restart is not known here and their tokens are
+ * accepted until they expire.
+ */
+@Component
+public class UserSecurityRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSecurityRegistry.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Set<Integer> disabledUsers = ConcurrentHashMap.newKeySet();
+
+    // userId -> epoch second of the last revoke; tokens with an iat in or before that second are rejected
+    private final Map<Integer, Long> tokensValidAfter = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDisabledUsers() {
+        try {
+            List<Integer> userIds = userRepository.findDisabledUserIds();
+            disabledUsers.addAll(userIds);
+            logger.info("Loaded {} disabled users into the token ban list", userIds.size());
+        } catch (Exception e) {
+            logger.error("Could not load disabled users: {}", e.getMessage());
+        }
+    }
+
+    public void disable(int userId) {
+        disabledUsers.add(userId);
+        revokeTokens(userId);
+    }
+
+    public void enable(int userId) {
+        disabledUsers.remove(userId);
+    }
+
+    public void revokeTokens(int userId) {
+        tokensValidAfter.put(userId, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Check whether a token issued at the given time is still acceptable for the user.
+     */
+    public boolean isTokenAllowed(int userId, Date issuedAt) {
+        if (disabledUsers.contains(userId)) {
+            return false;
+        }
+        Long validAfter = tokensValidAfter.get(userId);
+        if (validAfter == null) {
+            return true;
+        }
+        // iat has whole-second precision, so a token minted earlier in the revoke second looks
+        // the same as one minted after it; reject both and let the client log in again
+        return issuedAt != null && issuedAt.getTime() / 1000 > validAfter;
+    }
+}
@@ -0,0 +1,365 @@
+package com.v2r.v2rbackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.v2r.v2rbackend.entity.IdempotencyKey;
+import com.v2r.v2rbackend.repository.IdempotencyKeyRepository;
+import com.v2r.v2rbackend.security.UserPrincipal;
+import com.v2r.v2rbackend.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry by sending an Idempotency-Key header.
+ *
+ * Completed responses are cached on this node, and a duplicate that arrives while the first
+ * attempt is still running waits on that attempt instead of running again. idempotency_keys gives
+ * the same guarantees across nodes: the key is claimed before the request runs and completed
+ * inside the request's own transaction, so a stored response always matches committed writes.
+ * Only 2xx responses are stored; a failed attempt releases the key and the client may retry.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    // Must be longer than the slowest request; a lapsed lease lets another node run the key again
+    @Value("${app.idempotency.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${app.idempotency.local-cache-size:10000}")
+    private int localCacheSize;
+
+    private ExpiringCache<String, StoredResponse> completed;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayedLocal = new LongAdder();
+    private final LongAdder replayedStored = new LongAdder();
+    private final LongAdder waitedLocal = new LongAdder();
+    private final LongAdder waitedRemote = new LongAdder();
+    private final LongAdder takenOver = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        completed = new ExpiringCache<>(localCacheSize, ttlMs);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Scope for one caller's keys on an endpoint: the signed-in user, or for anonymous calls the
+     * user the request is made for. Another client reusing the same key gets its own entry
+     * instead of the first client's stored response.
+     */
+    public static String scope(String endpoint, UserPrincipal caller, Integer requestUserId) {
+        if (caller != null) {
+            return endpoint + ":user:" + caller.getUserId();
+        }
+        return endpoint + ":anon:" + requestUserId;
+    }
+
+    /**
+     * Run the action at most once per (scope, key). Without a key the action simply runs.
+     *
+     * @param request request body; a key reused with a different body gets 422
+     * @param action  controller logic; its writes join the transaction that stores the response
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String trimmed = key.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = fingerprint(request);
+        String localKey = scope + '\n' + trimmed;
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+
+        while (true) {
+            StoredResponse cached = completed.get(localKey);
+            if (cached != null) {
+                replayedLocal.increment();
+                return replay(cached, requestHash);
+            }
+
+            InFlight mine = new InFlight(requestHash);
+            InFlight running = inFlight.putIfAbsent(localKey, mine);
+            if (running == null) {
+                try {
+                    return runClaimed(scope, trimmed, localKey, requestHash, action, deadline, mine);
+                } finally {
+                    inFlight.remove(localKey, mine);
+                    // No-op when a response was stored; null tells waiters to try themselves
+                    mine.result.complete(null);
+                }
+            }
+
+            if (!running.requestHash.equals(requestHash)) {
+                return mismatch();
+            }
+            waitedLocal.increment();
+            StoredResponse stored;
+            try {
+                stored = running.result.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return conflict();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return conflict();
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                replayedLocal.increment();
+                return replay(stored, requestHash);
+            }
+            // The running attempt failed and released the key; loop to claim it ourselves
+        }
+    }
+
+    private ResponseEntity<?> runClaimed(String scope, String key, String localKey, String requestHash,
+                                         Supplier<ResponseEntity<?>> action, long deadline, InFlight mine) {
+        String owner = UUID.randomUUID().toString();
+        boolean waiting = false;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (tryClaim(scope, key, requestHash, owner, now)) {
+                return runAction(scope, key, localKey, requestHash, owner, action, mine);
+            }
+
+            IdempotencyKey row = idempotencyKeyRepository.findByScopeAndIdempotencyKey(scope, key).orElse(null);
+            if (row != null && !row.getExpiresAt().isAfter(now)) {
+                idempotencyKeyRepository.deleteIfExpired(scope, key, now);
+                continue;
+            }
+            if (row != null) {
+                if (!row.getRequestHash().equals(requestHash)) {
+                    return mismatch();
+                }
+                if (row.getStatus() == IdempotencyKey.Status.COMPLETED) {
+                    StoredResponse stored = new StoredResponse(row.getRequestHash(), row.getResponseStatus(), row.getResponseBody());
+                    remember(localKey, stored, row.getExpiresAt(), mine);
+                    replayedStored.increment();
+                    return replay(stored, requestHash);
+                }
+                if (row.getLockedUntil().isBefore(now)
+                        && idempotencyKeyRepository.takeOver(scope, key, owner, now.plus(Duration.ofMillis(leaseMs)), now) == 1) {
+                    takenOver.increment();
+                    logger.warn("Took over idempotency key {} / {} after its lease expired", scope, key);
+                    return runAction(scope, key, localKey, requestHash, owner, action, mine);
+                }
+            }
+
+            // Another node holds the key (or just released it); poll until it finishes
+            if (System.currentTimeMillis() >= deadline) {
+                return conflict();
+            }
+            if (!waiting) {
+                waitedRemote.increment();
+                waiting = true;
+            }
+            try {
+                Thread.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return conflict();
+            }
+        }
+    }
+
+    private ResponseEntity<?> runAction(String scope, String key, String localKey, String requestHash, String owner,
+                                        Supplier<ResponseEntity<?>> action, InFlight mine) {
+        executed.increment();
+        LocalDateTime[] expiresAt = new LocalDateTime[1];
+        String[] body = new String[1];
+        ResponseEntity<?> response;
+        try {
+            response = transactionTemplate.execute(tx -> {
+                ResponseEntity<?> result = action.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    tx.setRollbackOnly();
+                    return result;
+                }
+                body[0] = result.getBody() != null ? toJson(result.getBody()) : null;
+                expiresAt[0] = LocalDateTime.now().plus(Duration.ofMillis(ttlMs));
+                if (idempotencyKeyRepository.complete(scope, key, owner, result.getStatusCode().value(), body[0], expiresAt[0]) == 0) {
+                    throw new LeaseLostException();
+                }
+                return result;
+            });
+        } catch (LeaseLostException e) {
+            logger.warn("Idempotency key {} / {} was taken over while running; rolled back", scope, key);
+            return conflict();
+        } catch (RuntimeException e) {
+            release(scope, key, owner);
+            throw e;
+        }
+
+        if (expiresAt[0] == null) {
+            release(scope, key, owner);
+            return response;
+        }
+        remember(localKey, new StoredResponse(requestHash, response.getStatusCode().value(), body[0]), expiresAt[0], mine);
+        return response;
+    }
+
+    private boolean tryClaim(String scope, String key, String requestHash, String owner, LocalDateTime now) {
+        try {
+            return idempotencyKeyRepository.claim(scope, key, requestHash, owner,
+                    now.plus(Duration.ofMillis(leaseMs)), now, now.plus(Duration.ofMillis(ttlMs))) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(String scope, String key, String owner) {
+        try {
+            idempotencyKeyRepository.release(scope, key, owner);
+        } catch (RuntimeException e) {
+            // The lease still runs out, after which a retry can take the key over
+            logger.error("Failed to release idempotency key {} / {}", scope, key, e);
+        }
+    }
+
+    private void remember(String localKey, StoredResponse stored, LocalDateTime expiresAt, InFlight mine) {
+        long ttl = Duration.between(LocalDateTime.now(), expiresAt).toMillis();
+        completed.put(localKey, stored, System.currentTimeMillis() + ttl);
+        mine.result.complete(stored);
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            return mismatch();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.body);
+    }
+
+    private ResponseEntity<?> mismatch() {
+        mismatches.increment();
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(HEADER + " was already used with a different request");
+    }
+
+    private ResponseEntity<?> conflict() {
+        conflicts.increment();
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("A request with this " + HEADER + " is still in progress");
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Drop expired responses from the local tier. Safe to call from a scheduled job.
+     */
+    public int purgeLocal() {
+        return completed.purgeExpired();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localCache", completed.stats());
+        stats.put("inFlight", inFlight.size());
+        stats.put("executed", executed.sum());
+        stats.put("replayedLocal", replayedLocal.sum());
+        stats.put("replayedStored", replayedStored.sum());
+        stats.put("waitedLocal", waitedLocal.sum());
+        stats.put("waitedRemote", waitedRemote.sum());
+        stats.put("takenOver", takenOver.sum());
+        stats.put("mismatches", mismatches.sum());
+        stats.put("conflicts", conflicts.sum());
+        return stats;
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+        private LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.OrderChangeBatchEvent;
+import com.v2r.v2rbackend.dto.OrderChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fan-out of committed order changes to server-sent event subscribers.
+ *
+ * Events get increasing ids (seeded from the clock, so ids keep increasing across restarts) and
+ * are kept in a small replay ring for Last-Event-ID resume. Each connection has a bounded queue
+ * drained by a shared sender pool; publishing never blocks on a socket. A connection whose queue
+ * overflows is closed as a slow consumer and can resume from its last id.
+ *
+ * A send to a peer that stopped reading blocks with no timeout of its own. The heartbeat closes a
+ * connection whose send has been running longer than send-timeout-ms and adds a sender thread
+ * until the stuck one returns, so stalled clients cannot starve everyone else.
+ */
+@Service
+public class OrderEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventStream.class);
+
+    @Value("${app.orders.stream.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${app.orders.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.orders.stream.replay-size:256}")
+    private int replaySize;
+
+    @Value("${app.orders.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${app.orders.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<StreamEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long lastId = System.currentTimeMillis();
+
+    private static final int SENDER_THREADS = 2;
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final ThreadPoolExecutor senders = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "order-stream-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int stuckSenders;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+    private final LongAdder stalledSendDisconnects = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    // Committed changes only; a rolled-back status update never reaches the dashboards
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangeEvent event) {
+        publish("order", event);
+    }
+
+    // A bulk call is one "orders" event, so it takes one slot in each queue however many orders it touched
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrderChangeBatchEvent batch) {
+        publish("orders", batch);
+    }
+
+    private void publish(String name, Object payload) {
+        synchronized (lock) {
+            StreamEvent streamEvent = new StreamEvent(++lastId, name, payload);
+            replay.addLast(streamEvent);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, streamEvent);
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Open a stream. With a Last-Event-ID still in the replay ring the missed events are sent
+     * first; an id that fell out of the ring, or more missed events than fit in the connection's
+     * buffer, gets a "resync" event so the client reloads its page.
+     *
+     * @return the emitter, or null when the connection limit is reached
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxConnections) {
+            rejectedConnections.increment();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        Long resumeFrom = parseId(lastEventId);
+        synchronized (lock) {
+            if (resumeFrom != null && resumeFrom < lastId) {
+                List<StreamEvent> missed = eventsAfter(resumeFrom);
+                if (missed == null) {
+                    resyncs.increment();
+                    enqueue(subscriber, new StreamEvent(lastId, "resync", Map.of("reason", "replay window exceeded")));
+                } else if (missed.size() > bufferSize) {
+                    // Replaying would overflow the new queue and close the connection before it starts
+                    resyncs.increment();
+                    enqueue(subscriber, new StreamEvent(lastId, "resync", Map.of("reason", "too many missed events")));
+                } else {
+                    missed.forEach(event -> enqueue(subscriber, event));
+                }
+            } else if (resumeFrom != null && resumeFrom > lastId) {
+                // Id from another node or from before a clock change
+                resyncs.increment();
+                enqueue(subscriber, new StreamEvent(lastId, "resync", Map.of("reason", "unknown event id")));
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    // Keeps idle connections alive through proxies, finds dead sockets and sends stuck on one
+    @Scheduled(fixedDelayString = "${app.orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.sendingSince.get();
+            if (sendingSince > 0 && now - sendingSince > sendTimeoutMillis
+                    && subscriber.sendingSince.compareAndSet(sendingSince, -1)) {
+                stalledSendDisconnects.increment();
+                logger.info("Closing order stream subscriber: send blocked for {} ms", now - sendingSince);
+                addSender();
+                close(subscriber);
+                continue;
+            }
+            enqueue(subscriber, StreamEvent.HEARTBEAT);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", subscribers.size());
+        stats.put("maxConnections", maxConnections);
+        synchronized (lock) {
+            stats.put("lastEventId", lastId);
+            stats.put("replayBuffered", replay.size());
+        }
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("slowConsumerDisconnects", slowConsumerDisconnects.sum());
+        stats.put("stalledSendDisconnects", stalledSendDisconnects.sum());
+        synchronized (senders) {
+            stats.put("stuckSenders", stuckSenders);
+        }
+        stats.put("rejectedConnections", rejectedConnections.sum());
+        stats.put("resyncs", resyncs.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(this::close);
+        senders.shutdownNow();
+    }
+
+    // Called with the ring lock held; null when the id has already left the ring
+    private List<StreamEvent> eventsAfter(long id) {
+        if (replay.isEmpty() || replay.peekFirst().id > id + 1) {
+            return null;
+        }
+        List<StreamEvent> missed = new ArrayList<>();
+        for (Iterator<StreamEvent> it = replay.descendingIterator(); it.hasNext(); ) {
+            StreamEvent event = it.next();
+            if (event.id <= id) {
+                break;
+            }
+            missed.add(0, event);
+        }
+        return missed;
+    }
+
+    private void enqueue(Subscriber subscriber, StreamEvent event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            slowConsumerDisconnects.increment();
+            logger.info("Closing order stream subscriber: {} events buffered", subscriber.queue.size());
+            close(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                if (event == StreamEvent.HEARTBEAT) {
+                    send(subscriber, SseEmitter.event().comment("keep-alive"));
+                } else {
+                    send(subscriber, SseEmitter.event()
+                            .id(String.valueOf(event.id))
+                            .name(event.name)
+                            .data(event.payload, MediaType.APPLICATION_JSON));
+                    delivered.increment();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            close(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (subscriber.closed) {
+            completeIfIdle(subscriber);
+            return;
+        }
+        // An event may have arrived after the last poll but before the flag was cleared
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        long started = System.currentTimeMillis();
+        subscriber.sendingSince.set(started);
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            if (!subscriber.sendingSince.compareAndSet(started, 0)) {
+                // The heartbeat gave up on this send and added a sender thread in its place
+                removeSender();
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        completeIfIdle(subscriber);
+    }
+
+    // complete() waits for the emitter's write lock, which a blocked send holds; while a sender
+    // is busy with this subscriber it completes the emitter itself when it returns
+    private void completeIfIdle(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException ignored) {
+            // Already completed
+        }
+    }
+
+    private void addSender() {
+        synchronized (senders) {
+            stuckSenders++;
+            senders.setMaximumPoolSize(SENDER_THREADS + stuckSenders);
+            senders.setCorePoolSize(SENDER_THREADS + stuckSenders);
+        }
+    }
+
+    private void removeSender() {
+        synchronized (senders) {
+            stuckSenders--;
+            senders.setCorePoolSize(SENDER_THREADS + stuckSenders);
+            senders.setMaximumPoolSize(SENDER_THREADS + stuckSenders);
+        }
+    }
+
+    private static Long parseId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // Start of the send in progress, 0 when none is, -1 once the heartbeat gave up on it
+        private final AtomicLong sendingSince = new AtomicLong();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<StreamEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+
+    private static final class StreamEvent {
+        private static final StreamEvent HEARTBEAT = new StreamEvent(0, "heartbeat", null);
+
+        private final long id;
+        private final String name;
+        private final Object payload;
+
+        private StreamEvent(long id, String name, Object payload) {
+            this.id = id;
+            this.name = name;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.v2r.v2rbackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.v2r.v2rbackend.repository.OrderExportRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order exports written straight from a JDBC cursor to the response.
+ *
+ * CSV has one line per order line with the order columns repeated; NDJSON has one object per
+ * order with its lines nested, built while the cursor moves so only the current order is held.
+ * At most max-concurrent exports run at once, since each holds a connection for its duration.
+ * A client that disconnects makes the next write fail, which cancels the query.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    private static final String CSV_HEADER = "order_id,order_date,status,check_code,order_total,user_id,user_email," +
+            "order_detail_id,subscription_id,subscription_name,quantity,price_per_unit,line_total\n";
+
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+    }
+
+    @Autowired
+    private OrderExportRepository orderExportRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows per round trip; the driver never holds more than this many rows of the cursor
+    @Value("${app.orders.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.orders.export.max-concurrent:4}")
+    private int maxConcurrent;
+
+    private Semaphore permits;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rowsExported = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Prepare an export of the orders placed from {@code from} to {@code to} inclusive; either
+     * bound may be null. The export holds one of the max-concurrent permits until it finishes or
+     * {@link Export#release()} is called, whichever comes first.
+     *
+     * @return the body to stream, or null when max-concurrent exports are already running
+     */
+    public Export open(Format format, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            return null;
+        }
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return new Export(format, fromTime, toTime);
+    }
+
+    /**
+     * A prepared export. The body releases its permit when it ends; callers release it themselves
+     * when the body may never run, e.g. when the async request times out or fails before the body
+     * is started.
+     */
+    public final class Export implements StreamingResponseBody {
+
+        private final Format format;
+        private final LocalDateTime fromTime;
+        private final LocalDateTime toTime;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Export(Format format, LocalDateTime fromTime, LocalDateTime toTime) {
+            this.format = format;
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            started.increment();
+            long start = System.currentTimeMillis();
+            try {
+                long rows = format == Format.CSV
+                        ? writeCsv(out, fromTime, toTime)
+                        : writeNdjson(out, fromTime, toTime);
+                completed.increment();
+                logger.info("Exported {} order rows as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+            } catch (UncheckedIOException e) {
+                cancelled.increment();
+                logger.info("Order export cancelled after {} ms: {}", System.currentTimeMillis() - start, e.getCause().getMessage());
+                throw e.getCause();
+            } catch (IOException e) {
+                cancelled.increment();
+                throw e;
+            } catch (RuntimeException e) {
+                failed.increment();
+                logger.error("Order export failed", e);
+                throw e;
+            } finally {
+                release();
+            }
+        }
+
+        // Idempotent, so the body and an async completion callback can both call it
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private long writeCsv(OutputStream out, LocalDateTime from, LocalDateTime to) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+        writer.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(256);
+        long rows = orderExportRepository.stream(from, to, fetchSize, rs -> {
+            line.setLength(0);
+            line.append(rs.getInt("orderid")).append(',');
+            appendCsv(line, formatDate(rs.getTimestamp("order_date"))).append(',');
+            line.append(rs.getInt("status")).append(',');
+            appendCsv(line, rs.getString("check_code")).append(',');
+            appendNumber(line, rs, "order_total").append(',');
+            appendNumber(line, rs, "user_id").append(',');
+            appendCsv(line, rs.getString("email")).append(',');
+            appendNumber(line, rs, "order_detail_id").append(',');
+            appendNumber(line, rs, "subscription_id").append(',');
+            appendCsv(line, rs.getString("subscription_name")).append(',');
+            appendNumber(line, rs, "quantity").append(',');
+            appendNumber(line, rs, "price_per_unit").append(',');
+            appendNumber(line, rs, "line_total").append('\n');
+            writer.append(line);
+            rowsExported.increment();
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(OutputStream out, LocalDateTime from, LocalDateTime to) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        int[] currentOrder = {-1};
+
+        long rows = orderExportRepository.stream(from, to, fetchSize, rs -> {
+            int orderId = rs.getInt("orderid");
+            if (orderId != currentOrder[0]) {
+                if (currentOrder[0] != -1) {
+                    endOrder(json);
+                }
+                currentOrder[0] = orderId;
+                json.writeStartObject();
+                json.writeNumberField("orderID", orderId);
+                writeNullableNumber(json, "userId", rs, "user_id");
+                json.writeStringField("userEmail", rs.getString("email"));
+                json.writeStringField("orderDate", formatDate(rs.getTimestamp("order_date")));
+                writeNullableNumber(json, "totalPrice", rs, "order_total");
+                json.writeStringField("checkCode", rs.getString("check_code"));
+                json.writeNumberField("status", rs.getInt("status"));
+                json.writeArrayFieldStart("orderDetails");
+            }
+            if (rs.getObject("order_detail_id") != null) {
+                json.writeStartObject();
+                json.writeNumberField("orderDetailId", rs.getInt("order_detail_id"));
+                json.writeNumberField("subscriptionId", rs.getInt("subscription_id"));
+                json.writeStringField("subscriptionName", rs.getString("subscription_name"));
+                json.writeNumberField("quantity", rs.getInt("quantity"));
+                json.writeNumberField("pricePerUnit", rs.getLong("price_per_unit"));
+                json.writeNumberField("totalPrice", rs.getLong("line_total"));
+                json.writeEndObject();
+            }
+            rowsExported.increment();
+        });
+        if (currentOrder[0] != -1) {
+            endOrder(json);
+        }
+        json.flush();
+        return rows;
+    }
+
+    private static void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, ResultSet rs, String column)
+            throws SQLException, IOException {
+        long value = rs.getLong(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private static StringBuilder appendNumber(StringBuilder line, ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        if (!rs.wasNull()) {
+            line.append(value);
+        }
+        return line;
+    }
+
+    // RFC 4180 quoting; a leading =, +, - or @ is neutralized so spreadsheets do not run it as a formula
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return line;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@';
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        if (formula) {
+            line.append('\'');
+        }
+        return line.append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String formatDate(Timestamp timestamp) {
+        return timestamp == null ? null
+                : timestamp.toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime().toString();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", maxConcurrent - permits.availablePermits());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("fetchSize", fetchSize);
+        stats.put("started", started.sum());
+        stats.put("completed", completed.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("rowsExported", rowsExported.sum());
+        return stats;
+    }
+}
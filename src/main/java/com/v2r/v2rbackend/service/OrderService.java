@@ -1,16 +1,30 @@
 package com.v2r.v2rbackend.service;
 
+import com.v2r.v2rbackend.dto.BulkStatusUpdateResponse;
 import com.v2r.v2rbackend.dto.CreateOrderRequest;
+import com.v2r.v2rbackend.dto.CursorPage;
+import com.v2r.v2rbackend.dto.OrderChangeBatchEvent;
+import com.v2r.v2rbackend.dto.OrderChangeEvent;
 import com.v2r.v2rbackend.dto.OrderDetailResponse;
+import com.v2r.v2rbackend.dto.OrderDetailRow;
 import com.v2r.v2rbackend.dto.OrderResponse;
+import com.v2r.v2rbackend.dto.OrderSummaryRow;
+import com.v2r.v2rbackend.entity.Money;
 import com.v2r.v2rbackend.entity.Order;
 import com.v2r.v2rbackend.entity.OrderDetail;
+import com.v2r.v2rbackend.entity.OrderStatus;
 import com.v2r.v2rbackend.entity.Subscription;
 import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.repository.OrderBulkInsertRepository;
 import com.v2r.v2rbackend.repository.OrderRepository;
+import com.v2r.v2rbackend.repository.OrderStatusBulkRepository;
 import com.v2r.v2rbackend.repository.SubscriptionRepository;
 import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,7 +32,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +55,27 @@ public class    OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderTotalsService orderTotalsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderStatusBulkRepository orderStatusBulkRepository;
+
+    @Autowired
+    private OrderBulkInsertRepository orderBulkInsertRepository;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Value("${app.orders.bulk.max-ids:1000}")
+    private int bulkMaxIds;
+
+    @Value("${app.orders.bulk.max-orders:500}")
+    private int bulkMaxOrders;
+
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest req) {
         if (req == null) {
@@ -49,114 +92,328 @@ public class    OrderService {
             throw new IllegalArgumentException("Order must contain at least one item.");
         }
 
+        // Resolve every plan in the cart with one query
+        Map<Integer, Subscription> subscriptions = loadSubscriptions(List.of(req));
+        Order order = buildOrder(req, user, subscriptions);
+
+        // Same write path as createOrders: one INSERT for the order and one batch for its lines,
+        // where save() with the cascade sends a separate INSERT per line
+        List<Integer> orderIds = orderBulkInsertRepository.insert(List.of(order));
+        orderTotalsService.onOrderCreated(order.getStatus(), order.getTotalPrice());
+        revenueRollupService.onOrderCreated(order);
+        publishChange(OrderChangeEvent.Type.CREATED, order, null);
+
+        return readBack(orderIds).get(0);
+    }
+
+    /**
+     * Create many orders in one transaction, all or nothing. Users and plans are resolved with
+     * one query each, orders and their lines are written with JDBC batches (see
+     * OrderBulkInsertRepository) and the result is read back through the listing projection.
+     */
+    @Transactional
+    public List<OrderResponse> createOrders(List<CreateOrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one order is required");
+        }
+        if (requests.size() > bulkMaxOrders) {
+            throw new IllegalArgumentException("At most " + bulkMaxOrders + " orders per request");
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            CreateOrderRequest req = requests.get(i);
+            if (req == null || req.getUserId() == null) {
+                throw new IllegalArgumentException("userId is required (order " + i + ")");
+            }
+            if (req.getItems() == null || req.getItems().isEmpty()) {
+                throw new IllegalArgumentException("Order must contain at least one item (order " + i + ")");
+            }
+        }
+
+        Set<Integer> userIds = requests.stream().map(CreateOrderRequest::getUserId).collect(Collectors.toSet());
+        Map<Integer, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserID, Function.identity()));
+        Map<Integer, Subscription> subscriptions = loadSubscriptions(requests);
+
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (CreateOrderRequest req : requests) {
+            User user = users.get(req.getUserId());
+            if (user == null) {
+                throw new IllegalArgumentException("User not found: " + req.getUserId());
+            }
+            orders.add(buildOrder(req, user, subscriptions));
+        }
+
+        List<Integer> orderIds = orderBulkInsertRepository.insert(orders);
+
+        long total = 0;
+        List<OrderChangeEvent> changes = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            total += order.getTotalPrice().getVnd();
+            changes.add(toChangeEvent(OrderChangeEvent.Type.CREATED, order, null));
+        }
+        eventPublisher.publishEvent(new OrderChangeBatchEvent(OrderChangeEvent.Type.CREATED, changes));
+        orderTotalsService.onOrdersCreated(OrderStatus.PAID.getCode(), orders.size(), total);
+        revenueRollupService.onOrdersCreated(orders);
+
+        return readBack(orderIds);
+    }
+
+    // Orders just written by OrderBulkInsertRepository, through the listing projection
+    private List<OrderResponse> readBack(List<Integer> orderIds) {
+        List<OrderSummaryRow> rows = orderRepository.findOrderSummariesByIds(orderIds);
+        Map<Integer, List<OrderDetailResponse>> detailsByOrder = loadDetails(rows);
+        return rows.stream()
+                .map(row -> toResponse(row, detailsByOrder.getOrDefault(row.getOrderID(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Integer, Subscription> loadSubscriptions(List<CreateOrderRequest> requests) {
+        Set<Integer> subscriptionIds = requests.stream()
+                .flatMap(req -> req.getItems().stream())
+                .map(CreateOrderRequest.Item::getSubscriptionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return subscriptionRepository.findAllById(subscriptionIds).stream()
+                .collect(Collectors.toMap(Subscription::getId, Function.identity()));
+    }
+
+    // Prices the cart into a new, not yet persisted order
+    private Order buildOrder(CreateOrderRequest req, User user, Map<Integer, Subscription> subscriptions) {
         Order order = new Order();
         order.setUser(user);
         order.setOrder_date(new Date());
-        order.setStatus(1);
+        order.setStatus(OrderStatus.PAID.getCode());
 
-        double orderTotal = 0.0;
+        Money orderTotal = Money.ZERO;
         List<OrderDetail> details = new ArrayList<>();
 
         for (CreateOrderRequest.Item item : req.getItems()) {
             if (item.getSubscriptionId() == null) continue;
-            Subscription subscription = subscriptionRepository.findById(item.getSubscriptionId())
-                    .orElseThrow(() -> new IllegalArgumentException("Subscription not found: " + item.getSubscriptionId()));
-
-            double pricePerUnit;
-            try {
-                // Use helper to robustly parse price strings like "190000", "190,000", or short forms like "199" -> 199000
-                pricePerUnit = parsePriceString(subscription.getPrice());
-            } catch (Exception e) {
+            Subscription subscription = subscriptions.get(item.getSubscriptionId());
+            if (subscription == null) {
+                throw new IllegalArgumentException("Subscription not found: " + item.getSubscriptionId());
+            }
+
+            Money pricePerUnit = subscription.getPrice();
+            if (pricePerUnit == null) {
                 throw new IllegalStateException("Invalid subscription price for id=" + subscription.getId());
             }
 
             int quantity = (item.getQuantity() == null || item.getQuantity() <= 0) ? 1 : item.getQuantity();
-            double totalPrice = pricePerUnit * quantity;
+            Money totalPrice = pricePerUnit.times(quantity);
 
             OrderDetail od = new OrderDetail(order, subscription, quantity, pricePerUnit, totalPrice);
             details.add(od);
-            orderTotal += totalPrice;
+            orderTotal = orderTotal.plus(totalPrice);
         }
 
         order.setTotalPrice(orderTotal);
         order.setOrderDetails(details);
+        return order;
+    }
 
-        Order saved = orderRepository.save(order);
+    /**
+     * Listing read path: one query for the page of order headers, one COUNT and one query for the
+     * lines of those orders, whatever the page size. Rows are DTO projections, so users, details,
+     * subscriptions and payments are never loaded as entities.
+     */
+    public Page<OrderResponse> getAllOrders(Pageable pageable) {
+        Page<OrderSummaryRow> rows = orderRepository.findOrderSummaries(pageable);
+        Map<Integer, List<OrderDetailResponse>> detailsByOrder = loadDetails(rows.getContent());
+        return rows.map(row -> toResponse(row, detailsByOrder.getOrDefault(row.getOrderID(), List.of())));
+    }
 
-        return toResponse(saved);
+    /**
+     * Order history of one user, newest first, optionally in one status. Same three statements as
+     * the listing, but the header query and its COUNT read only ix_orders_user_status_date.
+     */
+    public Page<OrderResponse> getUserOrders(int userId, Integer status, Pageable pageable) {
+        Page<OrderSummaryRow> rows = status == null
+                ? orderRepository.findUserOrderSummaries(userId, pageable)
+                : orderRepository.findUserOrderSummariesByStatus(userId, OrderStatus.fromCode(status).getCode(), pageable);
+        Map<Integer, List<OrderDetailResponse>> detailsByOrder = loadDetails(rows.getContent());
+        return rows.map(row -> toResponse(row, detailsByOrder.getOrDefault(row.getOrderID(), List.of())));
     }
 
     /**
-     * Parse a price string into a double (VND). Accepts values like:
-     *  - "190000"
-     *  - "190,000"
-     *  - "190.000" (dots used as thousand separators)
-     *  - "199" (interpreted as 199000 VND)
-     *
-     * Heuristic: if parsed numeric value is less than 1000, assume it's given in thousands and multiply by 1000.
+     * Keyset variant of the listing, newest first. Every page seeks on the primary key, so deep
+     * pages cost the same as the first one; the COUNT only runs when includeTotal is set.
      */
-    private double parsePriceString(String priceStr) {
-        if (priceStr == null) throw new IllegalArgumentException("price is null");
-        // Remove common grouping characters and currency symbols, keep digits and dot
-        String cleaned = priceStr.replaceAll("[\\s,₫$€£]", "");
-        // If string contains dots and commas both, try to remove thousand separators (commas) and treat dot as decimal
-        // But common case: "190.000" means 190000, so remove dots when they are used as thousand separators (no decimal part)
-        // If cleaned contains more than one dot, remove all dots
-        if (cleaned.chars().filter(ch -> ch == '.').count() > 1) {
-            cleaned = cleaned.replace(".", "");
-        } else if (cleaned.contains(".") && !cleaned.contains(",")) {
-            // single dot - could be decimal separator or thousand separator. If characters after dot length == 3, treat as thousand separator
-            int idx = cleaned.indexOf('.');
-            if (cleaned.length() - idx - 1 == 3) {
-                cleaned = cleaned.replace(".", "");
-            }
-        }
+    public CursorPage<OrderResponse> scrollOrders(String after, int size, boolean includeTotal) {
+        int pageSize = KeysetCursor.clampSize(size);
+        int beforeId = KeysetCursor.decode(after, Integer.MAX_VALUE);
+        List<OrderSummaryRow> rows = orderRepository.findOrderSummariesBefore(beforeId, Limit.of(pageSize + 1));
+
+        // The extra look-ahead row is dropped by CursorPage.of, so its lines are not loaded
+        Map<Integer, List<OrderDetailResponse>> detailsByOrder =
+                loadDetails(rows.size() > pageSize ? rows.subList(0, pageSize) : rows);
+        List<OrderResponse> responses = rows.stream()
+                .map(row -> toResponse(row, detailsByOrder.getOrDefault(row.getOrderID(), List.of())))
+                .collect(Collectors.toList());
+        return CursorPage.of(responses, pageSize, OrderResponse::getOrderID, includeTotal ? orderRepository.count() : null);
+    }
 
-        double value = Double.parseDouble(cleaned);
-        // Heuristic: if value looks like a short number (e.g. 199) assume it's in thousands -> multiply by 1000
-        if (value > 0 && value < 1000) {
-            value = value * 1000;
+    private Map<Integer, List<OrderDetailResponse>> loadDetails(List<OrderSummaryRow> rows) {
+        Map<Integer, List<OrderDetailResponse>> detailsByOrder = new HashMap<>();
+        if (rows.isEmpty()) {
+            return detailsByOrder;
         }
-        return value;
+        List<Integer> orderIds = rows.stream().map(OrderSummaryRow::getOrderID).toList();
+        for (OrderDetailRow detail : orderRepository.findDetailRowsByOrderIds(orderIds)) {
+            detailsByOrder.computeIfAbsent(detail.getOrderID(), id -> new ArrayList<>()).add(detail.toResponse());
+        }
+        return detailsByOrder;
     }
 
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        Page<Order> orders = orderRepository.findAll(pageable);
-        return orders.map(this::toResponse);
+    public Long getTotalPriceByStatus(int status) {
+        return orderTotalsService.getTotalPriceByStatus(status);
     }
 
-    public Double getTotalPriceByStatus(int status) {
-        List<Order> orders = orderRepository.findByStatus(status);
-        return orders.stream()
-                .mapToDouble(Order::getTotalPrice)
-                .sum();
+    /**
+     * @throws IllegalStateException when several orders share the code, which only happens with
+     *         duplicates that predate ux_orders_check_code
+     */
+    public Optional<OrderResponse> findByCheckCode(String checkCode) {
+        List<Order> orders = orderRepository.findTop2ByCheckCodeOrderByOrderIDAsc(checkCode.trim());
+        if (orders.size() > 1) {
+            throw new IllegalStateException("Check code " + checkCode.trim() + " belongs to more than one order");
+        }
+        return orders.stream().findFirst().map(this::toResponse);
     }
 
     @Transactional
     public OrderResponse updateCheckCode(int orderId, String checkCode) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found with id: " + orderId));
-        order.setCheckCode(checkCode);
+        // Blank means "no code"; NULLs are outside the unique index
+        String normalized = checkCode == null || checkCode.isBlank() ? null : checkCode.trim();
+        if (normalized != null && orderRepository.existsByCheckCodeAndOrderIDNot(normalized, orderId)) {
+            throw new IllegalArgumentException("Check code already used by another order: " + normalized);
+        }
+        order.setCheckCode(normalized);
         Order saved = orderRepository.save(order);
+        publishChange(OrderChangeEvent.Type.CHECK_CODE_CHANGED, saved, null);
         return toResponse(saved);
     }
 
     @Transactional
     public OrderResponse updateStatus(int orderId, int status) {
-        Order order = orderRepository.findById(orderId)
+        // Locked, so a concurrent change from the same status waits and then sees the new one
+        // instead of applying the same totals and rollup deltas a second time
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found with id: " + orderId));
+        int oldStatus = order.getStatus();
+        OrderStatus target = OrderStatus.fromCode(status);
+        if (oldStatus == status) {
+            return toResponse(order);
+        }
+        // Rows written before statuses were validated may hold any code; those can be set to any
+        // valid status so they can be corrected, everything else follows the state machine
+        if (OrderStatus.isKnown(oldStatus) && !OrderStatus.fromCode(oldStatus).canTransitionTo(target)) {
+            throw new IllegalArgumentException("Order " + orderId + " cannot move from status " + oldStatus + " to " + status);
+        }
         order.setStatus(status);
         Order saved = orderRepository.save(order);
+        orderTotalsService.onStatusChanged(oldStatus, status, saved.getTotalPrice());
+        revenueRollupService.onStatusChanged(saved, oldStatus, status);
+        publishChange(OrderChangeEvent.Type.STATUS_CHANGED, saved, oldStatus);
         return toResponse(saved);
     }
 
+    /**
+     * Move many orders to one status in a single set-based UPDATE guarded by the only allowed
+     * source status. Orders in any other status are left alone and reported per id; totals and
+     * change events are maintained for the orders that moved.
+     */
+    @Transactional
+    public BulkStatusUpdateResponse bulkUpdateStatus(List<Integer> orderIds, int status) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("orderIds is required");
+        }
+        Set<Integer> ids = new LinkedHashSet<>(orderIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("orderIds is required");
+        }
+        if (ids.size() > bulkMaxIds) {
+            throw new IllegalArgumentException("At most " + bulkMaxIds + " orders per request");
+        }
+        OrderStatus target = OrderStatus.fromCode(status);
+        OrderStatus source = target.predecessor();
+        if (source == null) {
+            throw new IllegalArgumentException("Orders cannot be moved back to status " + status);
+        }
+
+        List<OrderStatusBulkRepository.MovedOrder> moved =
+                orderStatusBulkRepository.transition(ids, source.getCode(), target.getCode());
+
+        Set<Integer> movedIds = new HashSet<>();
+        long movedTotal = 0;
+        List<OrderChangeEvent> changes = new ArrayList<>(moved.size());
+        for (OrderStatusBulkRepository.MovedOrder order : moved) {
+            movedIds.add(order.getOrderId());
+            movedTotal += order.getTotalPrice();
+            changes.add(new OrderChangeEvent(OrderChangeEvent.Type.STATUS_CHANGED, order.getOrderId(),
+                    order.getUserId(), target.getCode(), source.getCode(), order.getCheckCode(), order.getTotalPrice()));
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new OrderChangeBatchEvent(OrderChangeEvent.Type.STATUS_CHANGED, changes));
+        }
+        orderTotalsService.onStatusChanged(source.getCode(), target.getCode(), moved.size(), movedTotal);
+        revenueRollupService.onStatusChanged(movedIds, source.getCode(), target.getCode());
+
+        Set<Integer> remaining = new HashSet<>(ids);
+        remaining.removeAll(movedIds);
+        Map<Integer, Integer> currentStatuses = orderStatusBulkRepository.findStatuses(remaining);
+
+        List<BulkStatusUpdateResponse.Result> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            if (movedIds.contains(id)) {
+                results.add(new BulkStatusUpdateResponse.Result(id, BulkStatusUpdateResponse.Outcome.UPDATED, source.getCode()));
+                continue;
+            }
+            Integer current = currentStatuses.get(id);
+            BulkStatusUpdateResponse.Outcome outcome = current == null
+                    ? BulkStatusUpdateResponse.Outcome.NOT_FOUND
+                    : current == target.getCode()
+                    ? BulkStatusUpdateResponse.Outcome.ALREADY_IN_STATUS
+                    : BulkStatusUpdateResponse.Outcome.INVALID_TRANSITION;
+            results.add(new BulkStatusUpdateResponse.Result(id, outcome, current));
+        }
+        return new BulkStatusUpdateResponse(target.getCode(), ids.size(), moved.size(), results);
+    }
+
+    // Delivered to /api/orders/stream by OrderEventStream once the transaction commits
+    private void publishChange(OrderChangeEvent.Type type, Order order, Integer previousStatus) {
+        eventPublisher.publishEvent(toChangeEvent(type, order, previousStatus));
+    }
+
+    private OrderChangeEvent toChangeEvent(OrderChangeEvent.Type type, Order order, Integer previousStatus) {
+        return new OrderChangeEvent(type, order.getOrderID(),
+                order.getUser() != null ? order.getUser().getUserID() : null, order.getStatus(), previousStatus,
+                order.getCheckCode(), order.getTotalPrice() != null ? order.getTotalPrice().getVnd() : 0L);
+    }
+
+    private OrderResponse toResponse(OrderSummaryRow row, List<OrderDetailResponse> details) {
+        OrderResponse res = new OrderResponse();
+        res.setOrderID(row.getOrderID());
+        res.setUserId(row.getUserId());
+        res.setUserEmail(row.getUserEmail());
+        res.setOrderDate(row.getOrderDate());
+        res.setTotalPrice(row.getTotalPrice() != null ? row.getTotalPrice().getVnd() : null);
+        res.setCheckCode(row.getCheckCode());
+        res.setStatus(row.getStatus());
+        res.setOrderDetails(details);
+        return res;
+    }
+
     private OrderResponse toResponse(Order order) {
         OrderResponse res = new OrderResponse();
         res.setOrderID(order.getOrderID());
         res.setUserId(order.getUser() != null ? order.getUser().getUserID() : null);
         res.setUserEmail(order.getUser() != null ? order.getUser().getEmail() : null);
         res.setOrderDate(order.getOrder_date());
-        res.setTotalPrice(order.getTotalPrice());
+        res.setTotalPrice(order.getTotalPrice() != null ? order.getTotalPrice().getVnd() : null);
         res.setCheckCode(order.getCheckCode());
         res.setStatus(order.getStatus());
         List<OrderDetailResponse> list = order.getOrderDetails().stream().map(od -> {
@@ -165,8 +422,8 @@ public class    OrderService {
             dr.setSubscriptionId(od.getSubscription() != null ? od.getSubscription().getId() : null);
             dr.setSubscriptionName(od.getSubscription() != null ? od.getSubscription().getName() : null);
             dr.setQuantity(od.getQuantity());
-            dr.setPricePerUnit(od.getPricePerUnit());
-            dr.setTotalPrice(od.getTotalPrice());
+            dr.setPricePerUnit(od.getPricePerUnit() != null ? od.getPricePerUnit().getVnd() : null);
+            dr.setTotalPrice(od.getTotalPrice() != null ? od.getTotalPrice().getVnd() : null);
             return dr;
         }).collect(Collectors.toList());
         res.setOrderDetails(list);
@@ -0,0 +1,142 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.entity.Money;
+import com.v2r.v2rbackend.repository.OrderRepository;
+import com.v2r.v2rbackend.repository.OrderStatusTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue per order status.
+ *
+ * By default totals come from a SUM over orders. With app.orders.status-totals.enabled they live
+ * in order_status_totals and every order write applies its delta in the writer's transaction, so
+ * reads are a primary key lookup, at the cost of all writers of one status queueing on its row.
+ * The table is built from orders at startup only while it is empty; rebuild() recomputes it on
+ * demand, e.g. after the flag was off for a while. Amounts are whole VND.
+ */
+@Service
+public class OrderTotalsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTotalsService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusTotalRepository orderStatusTotalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.orders.status-totals.enabled:false}")
+    private boolean enabled;
+
+    public long getTotalPriceByStatus(int status) {
+        if (!enabled) {
+            return orderRepository.sumTotalPriceByStatus(status);
+        }
+        return orderStatusTotalRepository.findById(status)
+                .map(total -> total.getTotalPrice())
+                .orElse(0L);
+    }
+
+    // Must run inside the transaction that inserts the order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(int status, Money totalPrice) {
+        apply(status, 1, totalPrice.getVnd());
+    }
+
+    // Bulk creation: orderCount new orders worth totalPrice VND
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrdersCreated(int status, int orderCount, long totalPrice) {
+        apply(status, orderCount, totalPrice);
+    }
+
+    // Must run inside the transaction that changes the status
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(int oldStatus, int newStatus, Money totalPrice) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        apply(oldStatus, -1, -totalPrice.getVnd());
+        apply(newStatus, 1, totalPrice.getVnd());
+    }
+
+    // Bulk transition: orderCount orders worth totalPrice VND moved from oldStatus to newStatus
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(int oldStatus, int newStatus, int orderCount, long totalPrice) {
+        if (oldStatus == newStatus || orderCount == 0) {
+            return;
+        }
+        apply(oldStatus, -orderCount, -totalPrice);
+        apply(newStatus, orderCount, totalPrice);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (orderStatusTotalRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Initial order_status_totals build failed", e);
+        }
+    }
+
+    /**
+     * Recompute order_status_totals from orders. The aggregate is read before any totals row is
+     * touched, so the rebuild never holds totals locks while waiting on order rows that writers
+     * hold (writers lock in the opposite order). Writes committed while it runs can be missed;
+     * run it when order traffic is quiet.
+     *
+     * @return statuses written and elapsed time
+     */
+    public Map<String, Object> rebuild() {
+        if (!enabled) {
+            throw new IllegalStateException("app.orders.status-totals.enabled is off, totals are read from orders");
+        }
+        long start = System.currentTimeMillis();
+        List<Object[]> totals = orderStatusTotalRepository.aggregateOrders();
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            orderStatusTotalRepository.deleteAllRows();
+            for (Object[] total : totals) {
+                orderStatusTotalRepository.insertTotal(((Number) total[0]).intValue(),
+                        ((Number) total[1]).longValue(), ((Number) total[2]).longValue());
+            }
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Rebuilt order_status_totals for {} statuses in {} ms", totals.size(), elapsed);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statuses", totals.size());
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    private void apply(int status, long countDelta, long priceDelta) {
+        if (!enabled) {
+            return;
+        }
+        // Single-row UPDATE on the hot path; the row is created the first time a status is seen
+        if (orderStatusTotalRepository.addDelta(status, countDelta, priceDelta) == 0) {
+            orderStatusTotalRepository.insertIfMissing(status);
+            orderStatusTotalRepository.addDelta(status, countDelta, priceDelta);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.v2r.v2rbackend.service;
+
+import java.util.Map;
+
+/**
+ * Backend holding the pending OTP code of each email. Selected with app.otp.store
+ * (memory by default, jpa for the otp_codes table).
+ */
+public interface OtpStore {
+
+    // Store a new code for the email, replacing any code issued before
+    void save(String email, String otpCode, long ttlMillis);
+
+    // True if the code matches the pending, unexpired code; a matching code is consumed
+    boolean consume(String email, String otpCode);
+
+    // Remove expired codes, returns number removed
+    int purgeExpired();
+
+    Map<String, Object> stats();
+}
@@ -0,0 +1,33 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.entity.User;
+
+public interface RefreshTokenService {
+
+    // Issue the first refresh token of a new login session
+    String issue(int userId);
+
+    // Exchange a refresh token for a new one; reuse of an old token revokes the whole session
+    Rotation rotate(String rawToken);
+
+    // Delete expired tokens in batches, returns number of rows deleted
+    int purgeExpired();
+
+    class Rotation {
+        private final User user;
+        private final String refreshToken;
+
+        public Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.RevenueRow;
+import com.v2r.v2rbackend.entity.Order;
+import com.v2r.v2rbackend.entity.OrderDetail;
+import com.v2r.v2rbackend.entity.OrderStatus;
+import com.v2r.v2rbackend.repository.RevenueRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily revenue per subscription plan and order status.
+ *
+ * Every order write applies its delta to revenue_rollup in the writer's transaction, so reports
+ * read rollup rows only. rebuild recomputes a date range from orders in parallel chunks, each in
+ * its own transaction; it runs at startup when the table is still empty (first deployment,
+ * DataSeeder data) and on demand after data fixes. Amounts are whole VND.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.orders.revenue.rebuild.chunk-days:31}")
+    private int chunkDays;
+
+    @Value("${app.orders.revenue.rebuild.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.orders.revenue.max-days:3660}")
+    private int maxDays;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Must run inside the transaction that inserts the order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(Order order) {
+        onOrdersCreated(List.of(order));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrdersCreated(Collection<Order> orders) {
+        Map<List<Object>, RevenueRollupRepository.Delta> deltas = new LinkedHashMap<>();
+        for (Order order : orders) {
+            for (RevenueRollupRepository.Delta share : shares(order, order.getStatus(), 1)) {
+                deltas.merge(List.of(share.getDay(), share.getSubscriptionId(), share.getStatus()), share, RevenueRollupService::sum);
+            }
+        }
+        revenueRollupRepository.applyDeltas(deltas.values());
+    }
+
+    // Must run inside the transaction that changes the status
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(Order order, int oldStatus, int newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        List<RevenueRollupRepository.Delta> deltas = new ArrayList<>(shares(order, oldStatus, -1));
+        deltas.addAll(shares(order, newStatus, 1));
+        revenueRollupRepository.applyDeltas(deltas);
+    }
+
+    // Bulk transition: call after the orders have moved, shares are read back from orders
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onStatusChanged(Collection<Integer> orderIds, int oldStatus, int newStatus) {
+        if (oldStatus == newStatus || orderIds.isEmpty()) {
+            return;
+        }
+        List<RevenueRollupRepository.Delta> deltas = new ArrayList<>();
+        for (RevenueRollupRepository.Delta share : revenueRollupRepository.aggregateOrders(orderIds)) {
+            deltas.add(new RevenueRollupRepository.Delta(share.getDay(), share.getSubscriptionId(), oldStatus,
+                    -share.getOrderCount(), -share.getAmount()));
+            deltas.add(new RevenueRollupRepository.Delta(share.getDay(), share.getSubscriptionId(), newStatus,
+                    share.getOrderCount(), share.getAmount()));
+        }
+        revenueRollupRepository.applyDeltas(deltas);
+    }
+
+    /**
+     * Revenue per plan and day or month over [from, to], from rollup rows only.
+     *
+     * @param granularity "day" or "month"
+     * @param status      only orders in this status, or every status when null
+     */
+    public List<RevenueRow> getRevenue(LocalDate from, LocalDate to, String granularity, Integer status) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("At most " + maxDays + " days per request");
+        }
+        if (status != null) {
+            OrderStatus.fromCode(status);
+        }
+        boolean monthly = "month".equalsIgnoreCase(granularity);
+        if (!monthly && !"day".equalsIgnoreCase(granularity)) {
+            throw new IllegalArgumentException("granularity must be day or month");
+        }
+
+        List<RevenueRow> daily = revenueRollupRepository.findDaily(from, to, status);
+        if (!monthly) {
+            return daily;
+        }
+        Map<List<Object>, RevenueRow> months = new LinkedHashMap<>();
+        for (RevenueRow row : daily) {
+            String month = row.getPeriod().substring(0, 7);
+            months.merge(List.of(month, row.getSubscriptionId()),
+                    new RevenueRow(month, row.getSubscriptionId(), row.getSubscriptionName(), row.getOrderCount(), row.getAmount()),
+                    (a, b) -> new RevenueRow(month, a.getSubscriptionId(), a.getSubscriptionName(),
+                            a.getOrderCount() + b.getOrderCount(), a.getAmount() + b.getAmount()));
+        }
+        List<RevenueRow> rows = new ArrayList<>(months.values());
+        rows.sort((a, b) -> a.getPeriod().equals(b.getPeriod())
+                ? Integer.compare(a.getSubscriptionId(), b.getSubscriptionId())
+                : a.getPeriod().compareTo(b.getPeriod()));
+        return rows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (!revenueRollupRepository.isEmpty()) {
+                return;
+            }
+            LocalDate[] range = revenueRollupRepository.orderDayRange();
+            if (range != null) {
+                rebuild(range[0], range[1]);
+            }
+        } catch (Exception e) {
+            logger.error("Initial revenue_rollup build failed", e);
+        }
+    }
+
+    /**
+     * Recompute the rollup rows of [from, to] from orders. The range is split into chunks of
+     * chunk-days that run in parallel, each replacing its days in one transaction.
+     *
+     * @return rollup rows written per chunk start day
+     */
+    public Map<String, Object> rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("from and to are required and from must not be after to");
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A revenue rebuild is already running");
+        }
+        long start = System.currentTimeMillis();
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays);
+            chunks.add(new LocalDate[]{chunkStart, chunkEnd.isAfter(to) ? to.plusDays(1) : chunkEnd});
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.size())), r -> {
+            Thread t = new Thread(r, "revenue-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(chunks.size());
+            for (LocalDate[] chunk : chunks) {
+                futures.add(executor.submit(() -> transactionTemplate.execute(tx ->
+                        revenueRollupRepository.rebuild(chunk[0], chunk[1]))));
+            }
+            long rows = 0;
+            for (Future<Integer> future : futures) {
+                rows += Objects.requireNonNullElse(future.get(), 0);
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            logger.info("Rebuilt revenue_rollup for {} to {} in {} chunks: {} rows in {} ms", from, to, chunks.size(), rows, elapsed);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("from", from.toString());
+            result.put("to", to.toString());
+            result.put("chunks", chunks.size());
+            result.put("rows", rows);
+            result.put("elapsedMs", elapsed);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Revenue rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Revenue rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            rebuilding.set(false);
+        }
+    }
+
+    // One delta per plan in the order; several lines for the same plan count as one order
+    private static List<RevenueRollupRepository.Delta> shares(Order order, int status, int sign) {
+        LocalDate day = order.getOrder_date().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        Map<Integer, Long> amountByPlan = new LinkedHashMap<>();
+        for (OrderDetail detail : order.getOrderDetails()) {
+            amountByPlan.merge(detail.getSubscription().getId(), detail.getTotalPrice().getVnd(), Long::sum);
+        }
+        List<RevenueRollupRepository.Delta> shares = new ArrayList<>(amountByPlan.size());
+        amountByPlan.forEach((planId, amount) ->
+                shares.add(new RevenueRollupRepository.Delta(day, planId, status, sign, sign * amount)));
+        return shares;
+    }
+
+    private static RevenueRollupRepository.Delta sum(RevenueRollupRepository.Delta a, RevenueRollupRepository.Delta b) {
+        return new RevenueRollupRepository.Delta(a.getDay(), a.getSubscriptionId(), a.getStatus(),
+                a.getOrderCount() + b.getOrderCount(), a.getAmount() + b.getAmount());
+    }
+}
@@ -1,5 +1,6 @@
 package com.v2r.v2rbackend.service;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.entity.Subscription;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,6 +11,7 @@ import java.util.Optional;
 public interface SubscriptionService {
     List<Subscription> findAll();
     Page<Subscription> findAll(Pageable pageable);
+    CursorPage<Subscription> scroll(String after, int size, boolean includeTotal);
     Optional<Subscription> findById(Integer id);
     Subscription save(Subscription subscription);
     Subscription update(Integer id, Subscription subscription);
@@ -1,5 +1,6 @@
 package com.v2r.v2rbackend.service;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.request.CreateUserRequest;
 import com.v2r.v2rbackend.entity.User;
 import org.springframework.data.domain.Page;
@@ -13,6 +14,7 @@ public interface UserService {
     Page<User> findAll(Pageable pageable);
     List<User> findAllWithRoles();
     Page<User> findAllWithRoles(Pageable pageable);
+    CursorPage<User> scrollWithRoles(String after, int size, boolean includeTotal);
     Optional<User> findById(Integer id);
     User save(User user);
     User update(User user);
@@ -1,5 +1,6 @@
 package com.v2r.v2rbackend.service;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.request.SubscriptionRegistrationRequest;
 import com.v2r.v2rbackend.dto.response.UserSubscriptionResponse;
 import com.v2r.v2rbackend.entity.UserSubscription;
@@ -17,6 +18,7 @@ public interface UserSubscriptionService {
     // Get all user subscriptions
     List<UserSubscription> findAll();
     Page<UserSubscription> findAll(Pageable pageable);
+    CursorPage<UserSubscription> scroll(String after, int size, boolean includeTotal);
     
     // Get subscription by ID
     Optional<UserSubscription> findById(Integer id);
@@ -1,33 +1,41 @@
 package com.v2r.v2rbackend.service.impl;
 
+import com.v2r.v2rbackend.entity.EmailOutbox;
+import com.v2r.v2rbackend.repository.EmailOutboxRepository;
 import com.v2r.v2rbackend.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private EmailOutboxRepository emailOutboxRepository;
 
+    /**
+     * Queue the OTP email in email_outbox within the caller's transaction.
+     * EmailOutboxDispatcher delivers it in the background.
+     */
     @Override
+    @Transactional
     public void sendOtpEmail(String toEmail, String otpCode) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("V2R - Verify Your Account");
-            message.setText("Your OTP code is: " + otpCode + "\n\nThis code will expire in 2 minutes.\n\nIf you didn't request this code, please ignore this email.");
-            
-            mailSender.send(message);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send email: " + e.getMessage());
-        }
+        enqueue(toEmail, "V2R - Verify Your Account",
+                "Your OTP code is: " + otpCode + "\n\nThis code will expire in 2 minutes.\n\nIf you didn't request this code, please ignore this email.");
+    }
+
+    private void enqueue(String to, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(EmailOutbox.Status.PENDING);
+        email.setAttempts(0);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        emailOutboxRepository.save(email);
     }
 }
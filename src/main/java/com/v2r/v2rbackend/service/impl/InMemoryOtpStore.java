@@ -0,0 +1,93 @@
+package com.v2r.v2rbackend.service.impl;
+
+import com.v2r.v2rbackend.service.OtpStore;
+import com.v2r.v2rbackend.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OTP codes kept in process memory, so generating and verifying a code needs no database
+ * round trip. Codes are stored as HMAC-SHA256 digests under a per-process random key and
+ * expire lazily on access, plus a periodic sweep from OtpStorePurgeJob.
+ *
+ * Pending codes are lost on restart and are not shared between nodes; users then request a new code.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${app.otp.memory.max-size:100000}")
+    private int maxSize;
+
+    private ExpiringCache<String, byte[]> codes;
+    private SecretKeySpec hmacKey;
+
+    @PostConstruct
+    void init() {
+        codes = new ExpiringCache<>(maxSize);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public void save(String email, String otpCode, long ttlMillis) {
+        String key = normalize(email);
+        codes.put(key, digest(key, otpCode), System.currentTimeMillis() + ttlMillis);
+    }
+
+    @Override
+    public boolean consume(String email, String otpCode) {
+        if (email == null || otpCode == null) {
+            return false;
+        }
+        String key = normalize(email);
+        byte[] candidate = digest(key, otpCode);
+        // Atomic compare-and-remove: two concurrent verifications of the same code cannot both succeed
+        return codes.removeIf(key, stored -> MessageDigest.isEqual(stored, candidate));
+    }
+
+    @Override
+    public int purgeExpired() {
+        return codes.purgeExpired();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", "memory");
+        stats.putAll(codes.stats());
+        return stats;
+    }
+
+    private byte[] digest(String email, String otpCode) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            // Bind the code to the email so equal codes of different users give different digests
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(otpCode.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
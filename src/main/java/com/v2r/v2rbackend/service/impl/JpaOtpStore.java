@@ -0,0 +1,71 @@
+package com.v2r.v2rbackend.service.impl;
+
+import com.v2r.v2rbackend.entity.OtpCode;
+import com.v2r.v2rbackend.repository.OtpCodeRepository;
+import com.v2r.v2rbackend.service.OtpStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OTP codes in the otp_codes table. Survives restarts and is shared between nodes,
+ * at the cost of database writes on every generate and verify.
+ */
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jpa")
+public class JpaOtpStore implements OtpStore {
+
+    @Autowired
+    private OtpCodeRepository otpCodeRepository;
+
+    @Override
+    @Transactional
+    public void save(String email, String otpCode, long ttlMillis) {
+        // Invalidate any existing unused OTPs for this email in one statement
+        otpCodeRepository.invalidateUnusedByEmail(email);
+
+        LocalDateTime now = LocalDateTime.now();
+        OtpCode otp = new OtpCode();
+        otp.setEmail(email);
+        otp.setOtpCode(otpCode);
+        otp.setCreatedAt(now);
+        otp.setExpiresAt(now.plus(Duration.ofMillis(ttlMillis)));
+        otp.setUsed(false);
+        otpCodeRepository.save(otp);
+    }
+
+    @Override
+    @Transactional
+    public boolean consume(String email, String otpCode) {
+        return otpCodeRepository.findByEmailAndOtpCodeAndUsedFalse(email, otpCode)
+                .map(otp -> {
+                    if (otp.getExpiresAt().isAfter(LocalDateTime.now())) {
+                        otp.setUsed(true);
+                        otpCodeRepository.save(otp);
+                        return true;
+                    }
+                    return false;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    public int purgeExpired() {
+        // Rows are deleted in chunks by OtpCodePurgeJob, which also covers this table when the memory store is active
+        return 0;
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", "jpa");
+        stats.put("rows", otpCodeRepository.count());
+        return stats;
+    }
+}
@@ -1,50 +1,39 @@
 package com.v2r.v2rbackend.service.impl;
 
-import com.v2r.v2rbackend.entity.OtpCode;
-import com.v2r.v2rbackend.repository.OtpCodeRepository;
 import com.v2r.v2rbackend.service.EmailService;
 import com.v2r.v2rbackend.service.OtpService;
+import com.v2r.v2rbackend.service.OtpStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Random;
+import java.security.SecureRandom;
 
 @Service
-@Transactional
 public class OtpServiceImpl implements OtpService {
 
+    private final SecureRandom random = new SecureRandom();
+
     @Autowired
-    private OtpCodeRepository otpCodeRepository;
+    private OtpStore otpStore;
 
     @Autowired
     private EmailService emailService;
 
+    @Value("${app.otp.ttl-ms:120000}")
+    private long otpTtlMs;
+
     @Override
+    @Transactional
     public String generateAndSendOtp(String email) {
         // Generate 5-digit OTP
-        String otpCode = String.format("%05d", new Random().nextInt(100000));
-
-        // Invalidate any existing unused OTPs for this email
-        List<OtpCode> existingOtps = otpCodeRepository.findByEmailAndUsedFalse(email);
-        for (OtpCode otp : existingOtps) {
-            otp.setUsed(true);
-            otpCodeRepository.save(otp);
-        }
-
-        // Create new OTP
-        OtpCode otpCode1 = new OtpCode();
-        otpCode1.setEmail(email);
-        otpCode1.setOtpCode(otpCode);
-        otpCode1.setCreatedAt(LocalDateTime.now());
-        otpCode1.setExpiresAt(LocalDateTime.now().plusMinutes(2)); // OTP expires in 10 minutes
-        otpCode1.setUsed(false);
+        String otpCode = String.format("%05d", random.nextInt(100000));
 
-        otpCodeRepository.save(otpCode1);
+        // Replaces any code issued before for this email
+        otpStore.save(email, otpCode, otpTtlMs);
 
-        // Send OTP via email
+        // Queued in email_outbox in this transaction, delivered in the background
         emailService.sendOtpEmail(email, otpCode);
 
         return otpCode;
@@ -52,16 +41,6 @@ public class OtpServiceImpl implements OtpService {
 
     @Override
     public boolean verifyOtp(String email, String otpCode) {
-        return otpCodeRepository.findByEmailAndOtpCodeAndUsedFalse(email, otpCode)
-                .map(otp -> {
-                    if (otp.getExpiresAt().isAfter(LocalDateTime.now())) {
-                        // OTP is valid and not expired
-                        otp.setUsed(true);
-                        otpCodeRepository.save(otp);
-                        return true;
-                    }
-                    return false;
-                })
-                .orElse(false);
+        return otpStore.consume(email, otpCode);
     }
 }
@@ -0,0 +1,122 @@
+package com.v2r.v2rbackend.service.impl;
+
+import com.v2r.v2rbackend.entity.RefreshToken;
+import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.repository.RefreshTokenRepository;
+import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.refresh-purge.batch-size:1000}")
+    private int purgeBatchSize;
+
+    @Override
+    @Transactional
+    public String issue(int userId) {
+        // Only the foreign key is needed, so a reference avoids reloading the user
+        return create(userRepository.getReferenceById(userId), UUID.randomUUID().toString());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token is required");
+        }
+
+        RefreshToken token = refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+
+        // Conditional update so two concurrent exchanges of the same token cannot both succeed
+        if (token.isRevoked() || refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            logger.warn("Refresh token reuse detected for user {}, session {} revoked",
+                    token.getUser().getUserID(), token.getFamilyId());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        User user = token.getUser();
+        if (!user.isStatus()) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            throw new BadCredentialsException("Account is disabled");
+        }
+
+        return new Rotation(user, create(user, token.getFamilyId()));
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            // Each batch runs in its own short transaction
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        return total;
+    }
+
+    private String create(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(Duration.ofMillis(refreshExpirationMs)));
+        token.setRevoked(false);
+        refreshTokenRepository.save(token);
+
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.v2r.v2rbackend.service.impl;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.entity.Subscription;
 import com.v2r.v2rbackend.repository.SubscriptionRepository;
 import com.v2r.v2rbackend.service.SubscriptionService;
+import com.v2r.v2rbackend.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -30,6 +33,15 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         return subscriptionRepository.findAll(pageable);
     }
 
+    @Override
+    public CursorPage<Subscription> scroll(String after, int size, boolean includeTotal) {
+        int pageSize = KeysetCursor.clampSize(size);
+        List<Subscription> subscriptions = subscriptionRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetCursor.decode(after, 0), Limit.of(pageSize + 1));
+        return CursorPage.of(subscriptions, pageSize, Subscription::getId,
+                includeTotal ? subscriptionRepository.count() : null);
+    }
+
     @Override
     public Optional<Subscription> findById(Integer id) {
         return subscriptionRepository.findById(id);
@@ -40,6 +52,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         if (subscriptionRepository.existsByName(subscription.getName())) {
             throw new IllegalArgumentException("Subscription with name '" + subscription.getName() + "' already exists");
         }
+        validatePrice(subscription);
         return subscriptionRepository.save(subscription);
     }
 
@@ -53,6 +66,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 && subscriptionRepository.existsByName(subscription.getName())) {
             throw new IllegalArgumentException("Subscription with name '" + subscription.getName() + "' already exists");
         }
+        validatePrice(subscription);
         
         existingSubscription.setName(subscription.getName());
         existingSubscription.setStatus(subscription.isStatus());
@@ -89,4 +103,10 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     public boolean existsByName(String name) {
         return subscriptionRepository.existsByName(name);
     }
+
+    private static void validatePrice(Subscription subscription) {
+        if (subscription.getPrice() == null || subscription.getPrice().isNegative()) {
+            throw new IllegalArgumentException("Price must be a non-negative amount in VND");
+        }
+    }
 }
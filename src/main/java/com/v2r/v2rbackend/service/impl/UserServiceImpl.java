@@ -1,17 +1,24 @@
 package com.v2r.v2rbackend.service.impl;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.request.CreateUserRequest;
 import com.v2r.v2rbackend.entity.Role;
 import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.repository.RefreshTokenRepository;
 import com.v2r.v2rbackend.repository.RoleRepository;
 import com.v2r.v2rbackend.repository.UserRepository;
+import com.v2r.v2rbackend.security.CustomUserDetailsService;
+import com.v2r.v2rbackend.security.UserSecurityRegistry;
 import com.v2r.v2rbackend.service.UserService;
+import com.v2r.v2rbackend.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,12 +29,20 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserSecurityRegistry userSecurityRegistry;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenRepository refreshTokenRepository;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                           UserSecurityRegistry userSecurityRegistry, CustomUserDetailsService userDetailsService,
+                           RefreshTokenRepository refreshTokenRepository) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userSecurityRegistry = userSecurityRegistry;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenRepository = refreshTokenRepository;
     }
 
     @Override
@@ -50,6 +65,13 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAllWithRoles(pageable);
     }
 
+    @Override
+    public CursorPage<User> scrollWithRoles(String after, int size, boolean includeTotal) {
+        int pageSize = KeysetCursor.clampSize(size);
+        List<User> users = userRepository.findWithRolesAfter(KeysetCursor.decode(after, 0), Limit.of(pageSize + 1));
+        return CursorPage.of(users, pageSize, User::getUserID, includeTotal ? userRepository.count() : null);
+    }
+
     @Override
     public Optional<User> findById(Integer id) {
         return userRepository.findById(id);
@@ -64,6 +86,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User update(User user) {
         if (!userRepository.existsById(user.getUserID())) {
             throw new EntityNotFoundException("User not found with id: " + user.getUserID());
@@ -76,16 +99,27 @@ public class UserServiceImpl implements UserService {
                 throw new IllegalArgumentException("Email already exists: " + user.getEmail());
             }
         }
+        String previousEmail = existingUser.map(User::getEmail).orElse(null);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        applySecurityStatus(saved.getUserID(), saved.isStatus());
+        userDetailsService.evict(previousEmail);
+        userDetailsService.evict(saved.getEmail());
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteById(Integer id) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException("User not found with id: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
+        // Their refresh tokens reference the user row
+        refreshTokenRepository.deleteByUserId(id);
         userRepository.deleteById(id);
+        // Surface a foreign key violation (e.g. the user has orders) before the ban list changes
+        userRepository.flush();
+        userSecurityRegistry.disable(id);
+        userDetailsService.evict(user.getEmail());
     }
 
     @Override
@@ -119,11 +153,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User updateStatus(Integer id, boolean status) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
         user.setStatus(status);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        applySecurityStatus(id, status);
+        userDetailsService.evict(saved.getEmail());
+        return saved;
     }
 
     @Override
@@ -131,7 +169,9 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
         user.setVerified(true);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDetailsService.evict(saved.getEmail());
+        return saved;
     }
 
     @Override
@@ -164,4 +204,15 @@ public class UserServiceImpl implements UserService {
 
         return userRepository.save(user);
     }
+
+    // Keep the in-memory ban list used by claims-only JWT authentication in sync, and cut off a
+    // disabled user's refresh tokens now rather than at their next rotation
+    private void applySecurityStatus(int userId, boolean active) {
+        if (active) {
+            userSecurityRegistry.enable(userId);
+        } else {
+            userSecurityRegistry.disable(userId);
+            refreshTokenRepository.revokeAllForUser(userId);
+        }
+    }
 }
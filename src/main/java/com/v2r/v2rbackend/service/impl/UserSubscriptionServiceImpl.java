@@ -1,7 +1,9 @@
 package com.v2r.v2rbackend.service.impl;
 
+import com.v2r.v2rbackend.dto.CursorPage;
 import com.v2r.v2rbackend.dto.request.SubscriptionRegistrationRequest;
 import com.v2r.v2rbackend.dto.response.UserSubscriptionResponse;
+import com.v2r.v2rbackend.entity.Money;
 import com.v2r.v2rbackend.entity.Payment;
 import com.v2r.v2rbackend.entity.Subscription;
 import com.v2r.v2rbackend.entity.User;
@@ -10,8 +12,10 @@ import com.v2r.v2rbackend.repository.SubscriptionRepository;
 import com.v2r.v2rbackend.repository.UserRepository;
 import com.v2r.v2rbackend.repository.UserSubscriptionRepository;
 import com.v2r.v2rbackend.service.UserSubscriptionService;
+import com.v2r.v2rbackend.util.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -65,7 +69,7 @@ public class UserSubscriptionServiceImpl implements UserSubscriptionService {
         // Create payment record
         Payment payment = new Payment();
         payment.setTransactionCode(request.getPaymentTransactionCode());
-        payment.setAmount(request.getPaymentAmount() != null ? request.getPaymentAmount() : 0.0);
+        payment.setAmount(request.getPaymentAmount() != null ? Money.of(request.getPaymentAmount()) : Money.ZERO);
         payment.setStatus(true);
         payment.setPaymentDate(new Date());
         
@@ -114,6 +118,15 @@ public class UserSubscriptionServiceImpl implements UserSubscriptionService {
         return userSubscriptionRepository.findAll(pageable);
     }
 
+    @Override
+    public CursorPage<UserSubscription> scroll(String after, int size, boolean includeTotal) {
+        int pageSize = KeysetCursor.clampSize(size);
+        List<UserSubscription> subscriptions = userSubscriptionRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetCursor.decode(after, 0), Limit.of(pageSize + 1));
+        return CursorPage.of(subscriptions, pageSize, UserSubscription::getId,
+                includeTotal ? userSubscriptionRepository.count() : null);
+    }
+
     @Override
     public Optional<UserSubscription> findById(Integer id) {
         return userSubscriptionRepository.findById(id);
@@ -261,14 +274,10 @@ public class UserSubscriptionServiceImpl implements UserSubscriptionService {
         // Create payment record (basic record without transaction details)
         Payment payment = new Payment();
         payment.setTransactionCode("SUB_CHANGE_" + System.currentTimeMillis());
-        
-        // Parse price safely - remove any commas, dots (except decimal point)
-        try {
-            String priceStr = newSubscription.getPrice().replaceAll("[^0-9.]", "");
-            payment.setAmount(Double.parseDouble(priceStr));
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid subscription price format: " + newSubscription.getPrice(), e);
+        if (newSubscription.getPrice() == null) {
+            throw new IllegalArgumentException("Subscription has no price: " + newSubscription.getId());
         }
+        payment.setAmount(newSubscription.getPrice());
         
         payment.setStatus(true);
         payment.setPaymentDate(new Date());
@@ -320,7 +329,7 @@ public class UserSubscriptionServiceImpl implements UserSubscriptionService {
         if (subscription.getSubscription() != null) {
             response.setSubscriptionId(subscription.getSubscription().getId());
             response.setSubscriptionName(subscription.getSubscription().getName());
-            response.setSubscriptionPrice(subscription.getSubscription().getPrice());
+            response.setSubscriptionPrice(subscription.getSubscription().getPrice() != null ? subscription.getSubscription().getPrice().getVnd() : null);
             response.setNumberOfModel(subscription.getSubscription().getNumberOfModel());
         }
         
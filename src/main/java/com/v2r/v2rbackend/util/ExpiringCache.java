@@ -0,0 +1,203 @@
+package com.v2r.v2rbackend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe in-memory cache with a size bound and a per-entry expiry time.
+ *
+ * When the cache is full, expired entries are swept first and then arbitrary entries are
+ * dropped until the cache is back under 90% of its capacity, so the sweep cost is amortized
+ * over many inserts.
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final int maxSize;
+    private final long defaultTtlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    public ExpiringCache(int maxSize, long defaultTtlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.defaultTtlMillis = defaultTtlMillis;
+    }
+
+    /**
+     * Get a value, or null if it is absent or expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Put a value that expires after the default TTL.
+     */
+    public void put(K key, V value) {
+        if (defaultTtlMillis <= 0) {
+            throw new IllegalStateException("No default TTL configured for this cache");
+        }
+        put(key, value, System.currentTimeMillis() + defaultTtlMillis);
+    }
+
+    /**
+     * Put a value that expires at the given epoch millis.
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    /**
+     * Atomically remove the entry if it is live and the value matches the condition.
+     * An expired entry is dropped and never matches.
+     */
+    public boolean removeIf(K key, Predicate<? super V> condition) {
+        long now = System.currentTimeMillis();
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(key, (k, entry) -> {
+            if (entry.isExpired(now)) {
+                expirations.increment();
+                return null;
+            }
+            if (condition.test(entry.value)) {
+                removed[0] = true;
+                return null;
+            }
+            return entry;
+        });
+        return removed[0];
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove every expired entry. Safe to call from a scheduled job.
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        expirations.add(removed);
+        return removed;
+    }
+
+    private void makeRoom() {
+        // Only one thread sweeps; others insert and let the cache briefly exceed its bound
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (entries.size() < maxSize) {
+                return;
+            }
+            purgeExpired();
+            int target = (int) (maxSize * 0.9);
+            Iterator<K> it = entries.keySet().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", getHits());
+        stats.put("misses", getMisses());
+        stats.put("hitRatio", getHitRatio());
+        stats.put("evictions", getEvictions());
+        stats.put("expirations", getExpirations());
+        return stats;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.v2r.v2rbackend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination. Wraps the last id a client has seen as URL-safe base64 so
+ * clients pass it back unchanged and the format can evolve behind the "k1:" version prefix.
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIX = "k1:";
+
+    // Largest page a scroll endpoint serves
+    public static final int MAX_SIZE = 100;
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id inside the cursor, or {@code start} when no cursor was given (first page)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode}
+     */
+    public static int decode(String cursor, int start) {
+        if (cursor == null || cursor.isBlank()) {
+            return start;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Integer.parseInt(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
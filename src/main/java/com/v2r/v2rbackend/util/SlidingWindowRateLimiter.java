@@ -0,0 +1,154 @@
+package com.v2r.v2rbackend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory sliding-window counter per key, without locks.
+ *
+ * The window is split into a fixed number of buckets. Each bucket is one long in an
+ * AtomicLongArray packing the bucket's time slot (high bits) and its count (low 20 bits), so
+ * recording a hit is a single CAS and stale buckets reset themselves when reused. The check and
+ * the increment are not one atomic step across buckets, so under heavy concurrency a key can
+ * overshoot its limit by at most the number of racing threads.
+ *
+ * Contention is striped by key: ConcurrentHashMap spreads keys over its bins and every key has
+ * its own array, so hits for different emails or IPs never CAS the same word. Hits for one key
+ * share its current bucket, which is fine for per-client limits that allow a handful of hits.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int limit;
+    private final long windowMillis;
+    private final int bucketCount;
+    private final long bucketMillis;
+    private final ConcurrentHashMap<String, AtomicLongArray> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int bucketCount) {
+        if (limit <= 0 || windowMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("limit, windowMillis and bucketCount must be positive");
+        }
+        this.limit = (int) Math.min(limit, COUNT_MASK);
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        this.windowMillis = bucketMillis * bucketCount;
+    }
+
+    /**
+     * Record a hit for the key if it is under the limit.
+     *
+     * @return 0 when the hit was recorded, otherwise the number of millis until the oldest
+     * counted hit leaves the window
+     */
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        long slot = now / bucketMillis;
+        AtomicLongArray buckets = windows.computeIfAbsent(key, k -> new AtomicLongArray(bucketCount));
+        int index = (int) (slot % bucketCount);
+
+        while (true) {
+            long count = 0;
+            long oldestSlot = slot;
+            for (int i = 0; i < bucketCount; i++) {
+                long packed = buckets.get(i);
+                long bucketSlot = packed >>> COUNT_BITS;
+                if (bucketSlot > slot - bucketCount && (packed & COUNT_MASK) > 0) {
+                    count += packed & COUNT_MASK;
+                    oldestSlot = Math.min(oldestSlot, bucketSlot);
+                }
+            }
+            if (count >= limit) {
+                rejected.increment();
+                return Math.max(1, (oldestSlot + bucketCount) * bucketMillis - now);
+            }
+
+            long current = buckets.get(index);
+            long next = (current >>> COUNT_BITS) == slot
+                    ? current + 1
+                    : (slot << COUNT_BITS) | 1;
+            if (buckets.compareAndSet(index, current, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back one hit recorded by tryAcquire, for a request that a later check rejected. The
+     * hit is taken from the key's newest bucket, which holds it unless the window has moved on.
+     */
+    public void release(String key) {
+        AtomicLongArray buckets = windows.get(key);
+        if (buckets == null) {
+            return;
+        }
+        long oldestLiveSlot = System.currentTimeMillis() / bucketMillis - bucketCount;
+        while (true) {
+            int newest = -1;
+            long newestPacked = 0;
+            for (int i = 0; i < bucketCount; i++) {
+                long packed = buckets.get(i);
+                if ((packed >>> COUNT_BITS) > oldestLiveSlot && (packed & COUNT_MASK) > 0
+                        && (newest < 0 || packed >>> COUNT_BITS > newestPacked >>> COUNT_BITS)) {
+                    newest = i;
+                    newestPacked = packed;
+                }
+            }
+            if (newest < 0) {
+                return;
+            }
+            if (buckets.compareAndSet(newest, newestPacked, newestPacked - 1)) {
+                allowed.decrement();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop keys whose buckets have all left the window. Safe to call from a scheduled job.
+     */
+    public int purgeIdle() {
+        long oldestLiveSlot = System.currentTimeMillis() / bucketMillis - bucketCount;
+        int removed = 0;
+        for (Iterator<Map.Entry<String, AtomicLongArray>> it = windows.entrySet().iterator(); it.hasNext(); ) {
+            if (isIdle(it.next().getValue(), oldestLiveSlot)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void reset(String key) {
+        windows.remove(key);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limit);
+        stats.put("windowMs", windowMillis);
+        stats.put("keys", windows.size());
+        stats.put("allowed", allowed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private boolean isIdle(AtomicLongArray buckets, long oldestLiveSlot) {
+        for (int i = 0; i < buckets.length(); i++) {
+            if ((buckets.get(i) >>> COUNT_BITS) > oldestLiveSlot) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
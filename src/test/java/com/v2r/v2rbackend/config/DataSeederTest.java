@@ -0,0 +1,49 @@
+package com.v2r.v2rbackend.config;
+
+import com.v2r.v2rbackend.service.RevenueRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Orders seeded into a database whose revenue_rollup is already built are counted in it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DataSeederTest {
+
+    private static final String CHECK_CODE = "FT25324055245745";
+    private static final LocalDate SEED_DAY = LocalDate.of(2025, 11, 20);
+
+    @Autowired
+    private DataSeeder dataSeeder;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seededOrdersAreAddedToTheRevenueRollup() {
+        jdbcTemplate.update("DELETE FROM order_details WHERE order_id IN (SELECT orderid FROM orders WHERE check_code = ?)", CHECK_CODE);
+        jdbcTemplate.update("DELETE FROM orders WHERE check_code = ?", CHECK_CODE);
+        revenueRollupService.rebuild(SEED_DAY, SEED_DAY);
+        long ordersBefore = rollupOrders();
+
+        dataSeeder.run();
+
+        assertEquals(ordersBefore + 1, rollupOrders());
+    }
+
+    private long rollupOrders() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(order_count), 0) FROM revenue_rollup WHERE revenue_day = ?",
+                Long.class, SEED_DAY);
+    }
+}
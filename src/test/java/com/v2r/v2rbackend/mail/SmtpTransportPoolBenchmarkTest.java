@@ -0,0 +1,75 @@
+package com.v2r.v2rbackend.mail;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Messages/sec with and without SmtpTransportPool against SmtpStandIn, with two senders as with
+ * the default two outbox dispatchers. The stand-in waits CONNECT_DELAY_MS before greeting each
+ * new connection, in place of the TCP + STARTTLS + AUTH round trips of a real server.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=SmtpTransportPoolBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SmtpTransportPoolBenchmarkTest {
+
+    private static final long CONNECT_DELAY_MS = 50;
+    private static final int MESSAGES = 200;
+    private static final int SENDERS = 2;
+
+    @Test
+    void pooledVersusUnpooled() throws Exception {
+        double unpooled = run(false);
+        double pooled = run(true);
+
+        System.out.printf("%nSMTP stand-in, %d ms per new connection, %d messages on %d senders%n",
+                CONNECT_DELAY_MS, MESSAGES, SENDERS);
+        System.out.printf("%-10s %12.1f msg/s%n", "unpooled", unpooled);
+        System.out.printf("%-10s %12.1f msg/s%n", "pooled", pooled);
+        System.out.printf("speed-up   %12.1fx%n", pooled / unpooled);
+
+        assertTrue(pooled > unpooled * 2, "pooling should at least double throughput");
+    }
+
+    private static double run(boolean pooling) throws Exception {
+        try (SmtpStandIn smtp = new SmtpStandIn(CONNECT_DELAY_MS)) {
+            SmtpTransportPool pool = SmtpTransportPoolTest.newPool(smtp.getPort(), pooling, SENDERS);
+            // Warm up class loading and the JIT outside the measurement
+            pool.send(SmtpTransportPoolTest.message("warmup@example.com"));
+
+            AtomicInteger next = new AtomicInteger();
+            ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+            try {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>(SENDERS);
+                for (int i = 0; i < SENDERS; i++) {
+                    futures.add(senders.submit(() -> {
+                        int n;
+                        while ((n = next.getAndIncrement()) < MESSAGES) {
+                            pool.send(SmtpTransportPoolTest.message("user" + n + "@example.com"));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                double perSecond = MESSAGES * 1_000_000_000.0 / (System.nanoTime() - start);
+                assertEquals(MESSAGES + 1, smtp.getReceived().size());
+                return perSecond;
+            } finally {
+                senders.shutdownNow();
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.v2r.v2rbackend.mail;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SmtpTransportPoolTest {
+
+    private SmtpStandIn smtp;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new SmtpStandIn(0);
+        pool = newPool(smtp.getPort(), true, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdown();
+        smtp.close();
+    }
+
+    @Test
+    void reusesOneSessionForManyMessages() {
+        for (int i = 0; i < 5; i++) {
+            pool.send(message("user" + i + "@example.com"));
+        }
+
+        assertEquals(5, smtp.getReceived().size());
+        assertEquals(1, smtp.getConnections());
+        assertEquals(4L, pool.stats().get("reused"));
+    }
+
+    @Test
+    void rejectedRecipientKeepsTheSession() {
+        smtp.rejectRecipient("bounce@example.com");
+        pool.send(message("first@example.com"));
+
+        assertThrows(MailSendException.class, () -> pool.send(message("bounce@example.com")));
+        pool.send(message("second@example.com"));
+
+        assertEquals(2, smtp.getReceived().size());
+        assertEquals(1, smtp.getConnections());
+        assertEquals(0L, pool.stats().get("closed"));
+    }
+
+    @Test
+    void brokenSessionIsReplaced() throws IOException {
+        pool.send(message("first@example.com"));
+        smtp.close();
+        SmtpStandIn restarted = new SmtpStandIn(0);
+        try {
+            // Same pool, new server: the pooled session is dead and the send fails once
+            ReflectionTestUtils.setField(pool, "mailSender", mailSender(restarted.getPort()));
+            assertThrows(MailSendException.class, () -> pool.send(message("second@example.com")));
+            pool.send(message("third@example.com"));
+
+            assertEquals(1, restarted.getReceived().size());
+            assertEquals(1L, pool.stats().get("closed"));
+        } finally {
+            pool.shutdown();
+            restarted.close();
+        }
+    }
+
+    static SmtpTransportPool newPool(int port, boolean enabled, int maxSessions) {
+        SmtpTransportPool pool = new SmtpTransportPool();
+        ReflectionTestUtils.setField(pool, "mailSender", mailSender(port));
+        ReflectionTestUtils.setField(pool, "enabled", enabled);
+        ReflectionTestUtils.setField(pool, "maxSessions", maxSessions);
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(pool, "validateAfterIdleMs", 5_000L);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerSession", 100);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 30_000L);
+        ReflectionTestUtils.invokeMethod(pool, "init");
+        return pool;
+    }
+
+    static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("no-reply@v2r.test");
+        message.setTo(to);
+        message.setSubject("V2R - Verify Your Account");
+        message.setText("Your OTP code is: 123456");
+        return message;
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.setProtocol("smtp");
+        return mailSender;
+    }
+}
@@ -0,0 +1,92 @@
+package com.v2r.v2rbackend.scheduler;
+
+import com.v2r.v2rbackend.mail.SmtpStandIn;
+import com.v2r.v2rbackend.service.EmailService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OTP emails go through email_outbox and the background dispatchers to an in-process SMTP server.
+ */
+@SpringBootTest(properties = "app.mail.outbox.max-attempts=1")
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+    private static final SmtpStandIn SMTP = startSmtp();
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", SMTP::getPort);
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @BeforeEach
+    void resetSmtp() {
+        SMTP.reset();
+    }
+
+    @Test
+    void otpEmailIsDeliveredInTheBackground() {
+        emailService.sendOtpEmail("alice@example.com", "482913");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> !SMTP.getReceived().isEmpty());
+        SmtpStandIn.ReceivedMessage message = SMTP.getReceived().get(0);
+        assertEquals(List.of("alice@example.com"), message.recipients());
+        assertTrue(message.data().contains("Your OTP code is: 482913"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> "SENT".equals(row("alice@example.com").get("status")));
+        assertEquals(1, ((Number) row("alice@example.com").get("attempts")).intValue());
+    }
+
+    @Test
+    void undeliverableEmailIsDeadLetteredWithoutItsBody() {
+        SMTP.rejectRecipient("nobody@example.com");
+        emailService.sendOtpEmail("nobody@example.com", "771204");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> "DEAD".equals(row("nobody@example.com").get("status")));
+        Map<String, Object> row = row("nobody@example.com");
+        assertEquals("", row.get("body"));
+        assertTrue(String.valueOf(row.get("last_error")).contains("Invalid Addresses"));
+        assertTrue(SMTP.getReceived().isEmpty());
+    }
+
+    private Map<String, Object> row(String recipient) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, attempts, body, last_error FROM email_outbox WHERE recipient = ?", recipient);
+    }
+
+    private static SmtpStandIn startSmtp() {
+        try {
+            return new SmtpStandIn(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
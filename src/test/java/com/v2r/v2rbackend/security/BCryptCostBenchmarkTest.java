@@ -0,0 +1,75 @@
+package com.v2r.v2rbackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hashes/sec per BCrypt cost, on one thread and on every CPU, to size login capacity per node.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=BCryptCostBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BCryptCostBenchmarkTest {
+
+    private static final String PASSWORD = "benchmark-Passw0rd!";
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 14;
+    private static final long MIN_MEASURE_MS = 1000;
+    private static final int MIN_HASHES = 3;
+
+    @Test
+    void hashesPerSecondPerCost() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        // Warm up the JIT so the first measured cost is not penalised
+        new CostAwareBCryptPasswordEncoder(4).encode(PASSWORD);
+
+        System.out.printf("%n%-6s %14s %18s %22s%n", "cost", "ms/hash", "hashes/s (1 thr)", "hashes/s (" + threads + " thr)");
+        double previous = Double.MAX_VALUE;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            CostAwareBCryptPasswordEncoder encoder = new CostAwareBCryptPasswordEncoder(cost);
+            double single = measure(encoder, 1);
+            double parallel = measure(encoder, threads);
+            System.out.printf("%-6d %14.1f %18.1f %22.1f%n", cost, 1000.0 / single, single, parallel);
+
+            // Every cost step doubles the work; allow generous noise but catch a cost that is ignored
+            assertTrue(single < previous * 0.8, "cost " + cost + " should be slower than cost " + (cost - 1));
+            previous = single;
+        }
+    }
+
+    // Hashes per second over at least MIN_MEASURE_MS and MIN_HASHES hashes per thread
+    private static double measure(CostAwareBCryptPasswordEncoder encoder, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(MIN_MEASURE_MS);
+            List<Future<Integer>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    int hashes = 0;
+                    while (hashes < MIN_HASHES || System.nanoTime() < deadline) {
+                        encoder.encode(PASSWORD);
+                        hashes++;
+                    }
+                    return hashes;
+                }));
+            }
+            long total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            return total * 1_000_000_000.0 / (System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
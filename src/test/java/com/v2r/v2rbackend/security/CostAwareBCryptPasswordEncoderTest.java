@@ -0,0 +1,19 @@
+package com.v2r.v2rbackend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CostAwareBCryptPasswordEncoderTest {
+
+    private final CostAwareBCryptPasswordEncoder encoder = new CostAwareBCryptPasswordEncoder(5);
+
+    @Test
+    void onlyLowerCostHashesAreUpgraded() {
+        assertTrue(encoder.upgradeEncoding(new CostAwareBCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new CostAwareBCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not a bcrypt hash"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.v2r.v2rbackend.security;
+
+import com.v2r.v2rbackend.dto.request.CreateUserRequest;
+import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.repository.RoleRepository;
+import com.v2r.v2rbackend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Database-mode JWT authentication for tokens whose user no longer exists or was disabled after
+ * the token was issued: the request continues unauthenticated instead of failing.
+ */
+@SpringBootTest(properties = "jwt.auth-mode=database")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void activeUserIsAuthenticated() throws Exception {
+        User user = newUser();
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", bearer(user.getEmail())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenOfUnknownUserIsIgnored() throws Exception {
+        mockMvc.perform(get("/api/users/me").header("Authorization", bearer(UUID.randomUUID() + "@example.com")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tokenOfDisabledUserIsIgnored() throws Exception {
+        User user = newUser();
+        userService.updateStatus(user.getUserID(), false);
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", bearer(user.getEmail())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User newUser() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(UUID.randomUUID() + "@example.com");
+        request.setPassword("secret-password");
+        request.setRoleId(roleRepository.findAll().get(0).getRoleID());
+        return userService.createUser(request);
+    }
+
+    private String bearer(String email) {
+        return "Bearer " + jwtUtil.generateToken(email);
+    }
+}
@@ -0,0 +1,44 @@
+package com.v2r.v2rbackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Users disabled in the database before startup are banned in claims mode too, not only the ones
+ * disabled through this node.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSecurityRegistryTest {
+
+    @Autowired
+    private UserSecurityRegistry userSecurityRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void usersDisabledInTheDatabaseAreLoaded() {
+        int userId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM users WHERE status = 1", Integer.class);
+        assertTrue(userSecurityRegistry.isTokenAllowed(userId, new Date()));
+
+        // As if disabled by another node or before a restart
+        jdbcTemplate.update("UPDATE users SET status = 0 WHERE user_id = ?", userId);
+        try {
+            userSecurityRegistry.loadDisabledUsers();
+
+            assertFalse(userSecurityRegistry.isTokenAllowed(userId, new Date()));
+        } finally {
+            jdbcTemplate.update("UPDATE users SET status = 1 WHERE user_id = ?", userId);
+            userSecurityRegistry.enable(userId);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.v2r.v2rbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Idempotency keys are scoped per caller: the same key and body from another client must run
+ * the request again rather than replay the first client's response.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void sameCallerReplaysAndOtherCallerRuns() {
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> body = Map.of("subscriptionId", 1);
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<?> first = idempotencyService.execute(IdempotencyService.scope("orders.create", null, 1), key, body,
+                () -> ResponseEntity.ok("order " + runs.incrementAndGet()));
+        ResponseEntity<?> retry = idempotencyService.execute(IdempotencyService.scope("orders.create", null, 1), key, body,
+                () -> ResponseEntity.ok("order " + runs.incrementAndGet()));
+        ResponseEntity<?> otherCaller = idempotencyService.execute(IdempotencyService.scope("orders.create", null, 2), key, body,
+                () -> ResponseEntity.ok("order " + runs.incrementAndGet()));
+
+        assertEquals(2, runs.get());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(otherCaller.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("order 2", otherCaller.getBody());
+    }
+}
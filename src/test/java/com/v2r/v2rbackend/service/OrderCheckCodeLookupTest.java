@@ -0,0 +1,50 @@
+package com.v2r.v2rbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Check-code lookups on a database whose legacy duplicates kept ux_orders_check_code from being created.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderCheckCodeLookupTest {
+
+    private static final String CODE = "DUPLICATE-CHECK-CODE";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void duplicateCheckCodeIsAConflict() {
+        List<Integer> orderIds = jdbcTemplate.queryForList("SELECT orderid FROM orders ORDER BY orderid FETCH FIRST 2 ROWS ONLY", Integer.class);
+        List<String> codes = orderIds.stream()
+                .map(id -> jdbcTemplate.queryForObject("SELECT check_code FROM orders WHERE orderid = ?", String.class, id))
+                .toList();
+        jdbcTemplate.execute("DROP INDEX ux_orders_check_code");
+        try {
+            for (Integer id : orderIds) {
+                jdbcTemplate.update("UPDATE orders SET check_code = ? WHERE orderid = ?", CODE, id);
+            }
+
+            assertThrows(IllegalStateException.class, () -> orderService.findByCheckCode(CODE));
+            assertTrue(orderService.findByCheckCode("NO-SUCH-CODE").isEmpty());
+        } finally {
+            for (int i = 0; i < orderIds.size(); i++) {
+                jdbcTemplate.update("UPDATE orders SET check_code = ? WHERE orderid = ?", codes.get(i), orderIds.get(i));
+            }
+            jdbcTemplate.execute("CREATE UNIQUE NULLS DISTINCT INDEX ux_orders_check_code ON orders (check_code)");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.CreateOrderRequest;
+import com.v2r.v2rbackend.entity.Subscription;
+import com.v2r.v2rbackend.repository.SubscriptionRepository;
+import com.v2r.v2rbackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Orders/sec for POST /api/orders (one createOrder call and transaction per order) against
+ * POST /api/orders/bulk (createOrders with BATCH orders per call), three lines per order, on the
+ * in-memory H2 database of the test profile.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=OrderCreationBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderCreationBenchmarkTest {
+
+    private static final int ORDERS = 2000;
+    private static final int BATCH = 500;
+    private static final int LINES_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void singleVersusBulk() {
+        List<CreateOrderRequest> requests = requests(ORDERS);
+        // Warm up class loading and the JIT outside the measurement
+        orderService.createOrders(requests.subList(0, BATCH));
+        for (CreateOrderRequest request : requests.subList(0, 100)) {
+            orderService.createOrder(request);
+        }
+
+        int before = countOrders();
+        long start = System.nanoTime();
+        for (CreateOrderRequest request : requests) {
+            orderService.createOrder(request);
+        }
+        double single = ORDERS * 1_000_000_000.0 / (System.nanoTime() - start);
+        assertEquals(before + ORDERS, countOrders());
+
+        before = countOrders();
+        start = System.nanoTime();
+        for (int from = 0; from < ORDERS; from += BATCH) {
+            orderService.createOrders(requests.subList(from, Math.min(from + BATCH, ORDERS)));
+        }
+        double bulk = ORDERS * 1_000_000_000.0 / (System.nanoTime() - start);
+        assertEquals(before + ORDERS, countOrders());
+
+        System.out.printf("%nH2, %d orders with %d lines each%n", ORDERS, LINES_PER_ORDER);
+        System.out.printf("%-22s %12.1f orders/s%n", "single (createOrder)", single);
+        System.out.printf("%-22s %12.1f orders/s%n", "bulk (" + BATCH + " per call)", bulk);
+        System.out.printf("speed-up               %12.1fx%n", bulk / single);
+
+        assertTrue(bulk > single, "bulk creation should be faster per order than one call per order");
+    }
+
+    private int countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class);
+    }
+
+    private List<CreateOrderRequest> requests(int count) {
+        int userId = userRepository.findAll().get(0).getUserID();
+        List<Subscription> plans = subscriptionRepository.findAll();
+        List<CreateOrderRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<CreateOrderRequest.Item> items = new ArrayList<>(LINES_PER_ORDER);
+            for (int line = 0; line < LINES_PER_ORDER; line++) {
+                CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+                item.setSubscriptionId(plans.get((i + line) % plans.size()).getId());
+                item.setQuantity(1 + line);
+                items.add(item);
+            }
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setUserId(userId);
+            request.setItems(items);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,87 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.OrderChangeBatchEvent;
+import com.v2r.v2rbackend.dto.OrderChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * A dashboard that stops reading its socket blocks the send in progress. The heartbeat must drop
+ * it and keep delivering to everyone else instead of losing a sender thread to it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.orders.stream.send-timeout-ms=200",
+        "app.orders.stream.heartbeat-ms=3600000"
+})
+@ActiveProfiles("test")
+class OrderEventStreamStalledClientTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Test
+    void stalledClientIsDroppedAndOthersKeepReceiving() throws Exception {
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = stalled.getOutputStream();
+            out.write(("GET /api/orders/stream HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            await().atMost(Duration.ofSeconds(10)).until(() -> stat("connections") == 1);
+
+            // Fill the socket buffers of a client that never reads until a send blocks
+            await().atMost(Duration.ofSeconds(60)).pollInterval(Duration.ofMillis(300)).until(() -> {
+                orderEventStream.onOrdersChanged(bigBatch());
+                orderEventStream.heartbeat();
+                return stat("stalledSendDisconnects") == 1;
+            });
+            assertEquals(0, stat("connections"));
+            assertEquals(1, stat("stuckSenders"));
+
+            // Both regular sender threads are still free for healthy subscribers
+            assertNotNull(orderEventStream.subscribe(null));
+            assertNotNull(orderEventStream.subscribe(null));
+            long delivered = stat("delivered");
+            orderEventStream.onOrderChanged(change(1));
+            await().atMost(Duration.ofSeconds(10)).until(() -> stat("delivered") == delivered + 2);
+        }
+
+        // Closing the client fails the blocked send and returns its thread
+        await().atMost(Duration.ofSeconds(30)).until(() -> stat("stuckSenders") == 0);
+    }
+
+    private long stat(String name) {
+        return ((Number) orderEventStream.stats().get(name)).longValue();
+    }
+
+    private static OrderChangeBatchEvent bigBatch() {
+        List<OrderChangeEvent> changes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            changes.add(change(i));
+        }
+        return new OrderChangeBatchEvent(OrderChangeEvent.Type.STATUS_CHANGED, changes);
+    }
+
+    private static OrderChangeEvent change(int orderId) {
+        return new OrderChangeEvent(OrderChangeEvent.Type.STATUS_CHANGED, orderId, 1, 2, 1, null, 100_000L);
+    }
+}
@@ -0,0 +1,71 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.OrderChangeBatchEvent;
+import com.v2r.v2rbackend.dto.OrderChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Bulk changes and reconnects must not overflow a subscriber's buffer and close it as a slow consumer.
+ */
+class OrderEventStreamTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private OrderEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new OrderEventStream();
+        ReflectionTestUtils.setField(stream, "maxConnections", 10);
+        ReflectionTestUtils.setField(stream, "bufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(stream, "replaySize", 16);
+        ReflectionTestUtils.setField(stream, "timeoutMillis", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void bulkChangeIsOneEvent() {
+        assertNotNull(stream.subscribe(null));
+
+        List<OrderChangeEvent> changes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            changes.add(change(i));
+        }
+        stream.onOrdersChanged(new OrderChangeBatchEvent(OrderChangeEvent.Type.STATUS_CHANGED, changes));
+
+        assertEquals(1L, stream.stats().get("published"));
+        assertEquals(1, stream.stats().get("connections"));
+        assertEquals(0L, stream.stats().get("slowConsumerDisconnects"));
+    }
+
+    @Test
+    void gapLargerThanTheBufferGetsAResync() {
+        long before = (long) stream.stats().get("lastEventId");
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            stream.onOrderChanged(change(i));
+        }
+
+        assertNotNull(stream.subscribe(String.valueOf(before)));
+
+        assertEquals(1L, stream.stats().get("resyncs"));
+        assertEquals(1, stream.stats().get("connections"));
+        assertEquals(0L, stream.stats().get("slowConsumerDisconnects"));
+    }
+
+    private static OrderChangeEvent change(int orderId) {
+        return new OrderChangeEvent(OrderChangeEvent.Type.STATUS_CHANGED, orderId, 1, 2, 1, null, 100_000L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.v2r.v2rbackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Export permits come back whether the body runs or the request ends before it starts.
+ */
+@SpringBootTest(properties = "app.orders.export.max-concurrent=1")
+@ActiveProfiles("test")
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Test
+    void exportThatNeverRunsCanBeReleased() {
+        OrderExportService.Export export = orderExportService.open(OrderExportService.Format.CSV, null, null);
+        assertNotNull(export);
+        assertNull(orderExportService.open(OrderExportService.Format.CSV, null, null));
+
+        // The async completion callback and the body may both release
+        export.release();
+        export.release();
+
+        assertEquals(0, orderExportService.stats().get("active"));
+    }
+
+    @Test
+    void exportReleasesItsPermitWhenDone() throws Exception {
+        OrderExportService.Export export = orderExportService.open(OrderExportService.Format.NDJSON, null, null);
+        assertNotNull(export);
+
+        export.writeTo(new ByteArrayOutputStream());
+        export.release();
+
+        assertEquals(0, orderExportService.stats().get("active"));
+        OrderExportService.Export next = orderExportService.open(OrderExportService.Format.NDJSON, null, null);
+        assertNotNull(next);
+        next.release();
+    }
+}
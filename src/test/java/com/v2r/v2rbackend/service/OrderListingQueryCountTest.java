@@ -0,0 +1,98 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.CreateOrderRequest;
+import com.v2r.v2rbackend.dto.OrderResponse;
+import com.v2r.v2rbackend.entity.Subscription;
+import com.v2r.v2rbackend.repository.SubscriptionRepository;
+import com.v2r.v2rbackend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * GET /api/orders costs the same number of SQL statements whatever the page size: the page of
+ * order headers, its COUNT and one batched query for the lines of every order on the page.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderListingQueryCountTest {
+
+    private static final int ORDERS = 60;
+    private static final long STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Newest first, so both pages below only hold these orders and not the ones DataSeeder adds
+    @BeforeEach
+    void createOrders() {
+        int userId = userRepository.findAll().get(0).getUserID();
+        List<Subscription> plans = subscriptionRepository.findAll();
+        List<CreateOrderRequest> requests = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            // Two lines per order, so a per-order or per-line lookup would show up in the count
+            requests.add(order(userId, plans.get(i % plans.size()).getId(), plans.get((i + 1) % plans.size()).getId()));
+        }
+        orderService.createOrders(requests);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        long small = statementsForPage(5);
+        long large = statementsForPage(50);
+
+        assertEquals(STATEMENTS_PER_PAGE, small);
+        assertEquals(STATEMENTS_PER_PAGE, large);
+    }
+
+    private long statementsForPage(int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderResponse> page = orderService.getAllOrders(PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "orderID")));
+
+        assertEquals(size, page.getContent().size());
+        for (OrderResponse order : page.getContent()) {
+            assertEquals(2, order.getOrderDetails().size());
+            assertFalse(order.getUserEmail() == null || order.getUserEmail().isEmpty());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static CreateOrderRequest order(int userId, int... subscriptionIds) {
+        List<CreateOrderRequest.Item> items = new ArrayList<>();
+        for (int subscriptionId : subscriptionIds) {
+            CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+            item.setSubscriptionId(subscriptionId);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(userId);
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,99 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.CreateOrderRequest;
+import com.v2r.v2rbackend.dto.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Edge cases of the order status state machine that used to end in a 500 or a dead end.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStatusUpdateTest {
+
+    private static final int THREADS = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkRequestWithOnlyNullIdsIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.bulkUpdateStatus(Arrays.asList(null, null), 2));
+    }
+
+    @Test
+    void orderWithLegacyStatusCanBeCorrected() {
+        int orderId = jdbcTemplate.queryForObject("SELECT MIN(orderid) FROM orders", Integer.class);
+        jdbcTemplate.update("UPDATE orders SET status = 7 WHERE orderid = ?", orderId);
+
+        OrderResponse response = orderService.updateStatus(orderId, 2);
+
+        assertEquals(2, response.getStatus());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT status FROM orders WHERE orderid = ?", Integer.class, orderId));
+    }
+
+    @Test
+    void concurrentChangesFromTheSameStatusMoveTheRollupOnce() throws Exception {
+        int userId = jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM users", Integer.class);
+        int subscriptionId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM subscriptions", Integer.class);
+        CreateOrderRequest.Item item = new CreateOrderRequest.Item();
+        item.setSubscriptionId(subscriptionId);
+        item.setQuantity(1);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setUserId(userId);
+        request.setItems(List.of(item));
+        int orderId = orderService.createOrder(request).getOrderID();
+        long shippingBefore = rollupOrders(2);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return orderService.updateStatus(orderId, 2);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(shippingBefore + 1, rollupOrders(2));
+    }
+
+    @Test
+    void unknownTargetStatusIsStillRejected() {
+        int orderId = jdbcTemplate.queryForObject("SELECT MIN(orderid) FROM orders", Integer.class);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateStatus(orderId, 7));
+    }
+
+    private long rollupOrders(int status) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(order_count), 0) FROM revenue_rollup WHERE status = ?",
+                Long.class, status);
+    }
+}
@@ -0,0 +1,81 @@
+package com.v2r.v2rbackend.service;
+
+import com.v2r.v2rbackend.dto.request.CreateUserRequest;
+import com.v2r.v2rbackend.entity.RefreshToken;
+import com.v2r.v2rbackend.entity.User;
+import com.v2r.v2rbackend.repository.RefreshTokenRepository;
+import com.v2r.v2rbackend.repository.RoleRepository;
+import com.v2r.v2rbackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Disabling or deleting a user who has logged in, i.e. who has refresh tokens.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceImplTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void disablingAUserRevokesTheirRefreshTokens() {
+        User user = loggedInUser();
+
+        userService.updateStatus(user.getUserID(), false);
+
+        List<RefreshToken> tokens = tokensOf(user);
+        assertEquals(2, tokens.size());
+        assertTrue(tokens.stream().allMatch(RefreshToken::isRevoked));
+    }
+
+    @Test
+    void userWhoLoggedInCanBeDeleted() {
+        User user = loggedInUser();
+
+        userService.deleteById(user.getUserID());
+
+        assertFalse(userRepository.existsById(user.getUserID()));
+        assertTrue(tokensOf(user).isEmpty());
+    }
+
+    // A user with two login sessions
+    private User loggedInUser() {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(UUID.randomUUID() + "@example.com");
+        request.setPassword("secret-password");
+        request.setRoleId(roleRepository.findAll().get(0).getRoleID());
+        User user = userService.createUser(request);
+        refreshTokenService.issue(user.getUserID());
+        refreshTokenService.issue(user.getUserID());
+        return user;
+    }
+
+    private List<RefreshToken> tokensOf(User user) {
+        return refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUser().getUserID() == user.getUserID())
+                .toList();
+    }
+}